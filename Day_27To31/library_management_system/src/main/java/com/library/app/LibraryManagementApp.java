@@ -1,20 +1,42 @@
 package Day_27To31.library_management_system.src.main.java.com.library.app;
 
-import Day_27To31.library_management_system.src.main.java.com.library.dao.AuthorDAO;
-import Day_27To31.library_management_system.src.main.java.com.library.dao.BookDAO;
-import Day_27To31.library_management_system.src.main.java.com.library.dao.BookLoanDAO;
-import Day_27To31.library_management_system.src.main.java.com.library.dao.MemberDAO;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.ActiveLoanCounter;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.AuthorRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BulkResult;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.EntityCache;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.InventoryStore;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.LoanJournal;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.LoanRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.MemberRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.Page;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.ReportRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.Repositories;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
 import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.service.BulkImportService;
 import Day_27To31.library_management_system.src.main.java.com.library.service.LibraryService;
+import Day_27To31.library_management_system.src.main.java.com.library.service.OverdueMaintenanceJob;
 import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LruCache;
+import Day_27To31.library_management_system.src.main.java.com.library.util.QueryMetrics;
+import Day_27To31.library_management_system.src.main.java.com.library.util.SlowQueryLog;
+import Day_27To31.library_management_system.src.main.java.com.library.util.TransactionExecutor;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 /**
  * Integrated Console Application for Library Management System
@@ -22,11 +44,13 @@ import java.util.Scanner;
 public class LibraryManagementApp {
 
     // DAOs and Services
-    private static AuthorDAO authorDAO = new AuthorDAO();
-    private static BookDAO bookDAO = new BookDAO();
-    private static MemberDAO memberDAO = new MemberDAO();
-    private static BookLoanDAO bookLoanDAO = new BookLoanDAO();
+    private static AuthorRepository authorDAO = Repositories.authors();
+    private static BookRepository bookDAO = Repositories.books();
+    private static MemberRepository memberDAO = Repositories.members();
+    private static LoanRepository bookLoanDAO = Repositories.loans();
+    private static ReportRepository reportDAO = Repositories.reports();
     private static LibraryService libraryService = new LibraryService();
+    private static BulkImportService bulkImportService = new BulkImportService();
 
     private static Scanner scanner = new Scanner(System.in);
 
@@ -35,12 +59,28 @@ public class LibraryManagementApp {
         System.out.println("    LIBRARY MANAGEMENT SYSTEM - CONSOLE APP");
         System.out.println("====================================================");
 
-        // Test database connection
-        DatabaseConnection.testConnection();
+        if (Repositories.isInMemory()) {
+            System.out.println("Storage: in-memory (library.storage=memory) - data is lost on exit");
+        } else {
+            // Test database connection
+            DatabaseConnection.testConnection();
 
-        if (!isDatabaseConnected()) {
-            System.out.println("Cannot connect to database. Exiting...");
-            return;
+            if (!isDatabaseConnected()) {
+                System.out.println("Cannot connect to database. Exiting...");
+                return;
+            }
+        }
+
+        // Warm in-memory indexes used by the checkout path
+        if (LoanJournal.getInstance().open()) {
+            System.out.println("Loan journal: " + LoanJournal.getInstance().getOpenLoanCount()
+                    + " open loans restored (library.journal.dir)");
+        }
+        ActiveLoanCounter.getInstance().warm();
+        libraryService.buildSearchIndex();
+        OverdueMaintenanceJob.getInstance().start();
+        if (InventoryStore.getInstance().open()) {
+            System.out.println("Inventory: memory-mapped file (library.inventory.file)");
         }
 
         boolean running = true;
@@ -87,6 +127,22 @@ public class LibraryManagementApp {
         }
 
         scanner.close();
+        if (!Repositories.isInMemory()) {
+            InventoryStore.getInstance().close();
+            LoanJournal.getInstance().close();
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    /**
+     * The raw-SQL tools have no database behind them with in-memory storage
+     */
+    private static boolean databaseUnavailable() {
+        if (Repositories.isInMemory()) {
+            System.out.println("Not available with in-memory storage (library.storage=memory).");
+            return true;
+        }
+        return false;
     }
 
     private static boolean isDatabaseConnected() {
@@ -200,22 +256,27 @@ public class LibraryManagementApp {
 
     private static void viewAllAuthors() {
         System.out.println("\n--- All Authors ---");
-        List<Author> authors = authorDAO.getAllAuthors();
-
-        if (authors.isEmpty()) {
-            System.out.println("No authors found.");
-            return;
+        int count = 0;
+
+        // Rows are streamed from the database, so this works for any table size
+        try (Stream<Author> authors = authorDAO.streamAllAuthors()) {
+            Iterator<Author> it = authors.iterator();
+            while (it.hasNext()) {
+                Author author = it.next();
+                if (count++ == 0) {
+                    System.out.printf("%-5s %-30s %-30s %-10s%n", "ID", "Name", "Email", "Birth Year");
+                    System.out.println("-".repeat(80));
+                }
+                System.out.printf("%-5d %-30s %-30s %-10s%n",
+                        author.getAuthorId(),
+                        truncate(author.getName(), 30),
+                        truncate(author.getEmail(), 30),
+                        author.getBirthYear() != null ? author.getBirthYear().toString() : "N/A");
+            }
         }
 
-        System.out.printf("%-5s %-30s %-30s %-10s%n", "ID", "Name", "Email", "Birth Year");
-        System.out.println("-".repeat(80));
-
-        for (Author author : authors) {
-            System.out.printf("%-5d %-30s %-30s %-10s%n",
-                    author.getAuthorId(),
-                    truncate(author.getName(), 30),
-                    truncate(author.getEmail(), 30),
-                    author.getBirthYear() != null ? author.getBirthYear().toString() : "N/A");
+        if (count == 0) {
+            System.out.println("No authors found.");
         }
     }
 
@@ -277,7 +338,7 @@ public class LibraryManagementApp {
         String biography = scanner.nextLine().trim();
         if (!biography.isEmpty()) author.setBiography(biography);
 
-        if (authorDAO.updateAuthor(author)) {
+        if (libraryService.updateAuthor(author)) {
             System.out.println("Author updated successfully!");
         } else {
             System.out.println("Failed to update author.");
@@ -324,6 +385,7 @@ public class LibraryManagementApp {
             System.out.println("4. Update Book");
             System.out.println("5. Delete Book");
             System.out.println("6. Update Book Copies");
+            System.out.println("7. Search Books (title, ISBN, author)");
             System.out.println("0. Back to Main Menu");
             System.out.println("====================================================");
 
@@ -348,6 +410,9 @@ public class LibraryManagementApp {
                 case 6:
                     updateBookCopies();
                     break;
+                case 7:
+                    searchBooks();
+                    break;
                 case 0:
                     return;
                 default:
@@ -413,7 +478,7 @@ public class LibraryManagementApp {
 
         Book book = new Book(title, isbn, publicationYear, price, copies, authorId);
 
-        if (bookDAO.createBook(book)) {
+        if (libraryService.addBook(book)) {
             System.out.println("Book added successfully with ID: " + book.getBookId());
         } else {
             System.out.println("Failed to add book. ISBN might already exist or invalid author ID.");
@@ -422,25 +487,29 @@ public class LibraryManagementApp {
 
     private static void viewAllBooks() {
         System.out.println("\n--- All Books ---");
-        List<Book> books = bookDAO.getAllBooks();
-
-        if (books.isEmpty()) {
-            System.out.println("No books found.");
-            return;
+        int count = 0;
+
+        try (Stream<Book> books = bookDAO.streamAllBooks()) {
+            Iterator<Book> it = books.iterator();
+            while (it.hasNext()) {
+                Book book = it.next();
+                if (count++ == 0) {
+                    System.out.printf("%-5s %-30s %-20s %-25s %-8s %-8s%n",
+                            "ID", "Title", "ISBN", "Author", "Copies", "Price");
+                    System.out.println("-".repeat(100));
+                }
+                System.out.printf("%-5d %-30s %-20s %-25s %-8d $%-7s%n",
+                        book.getBookId(),
+                        truncate(book.getTitle(), 30),
+                        truncate(book.getIsbn(), 20),
+                        truncate(book.getAuthorName() != null ? book.getAuthorName() : "N/A", 25),
+                        book.getCopiesAvailable(),
+                        book.getPrice() != null ? book.getPrice().toString() : "N/A");
+            }
         }
 
-        System.out.printf("%-5s %-30s %-20s %-25s %-8s %-8s%n",
-                "ID", "Title", "ISBN", "Author", "Copies", "Price");
-        System.out.println("-".repeat(100));
-
-        for (Book book : books) {
-            System.out.printf("%-5d %-30s %-20s %-25s %-8d $%-7s%n",
-                    book.getBookId(),
-                    truncate(book.getTitle(), 30),
-                    truncate(book.getIsbn(), 20),
-                    truncate(book.getAuthorName() != null ? book.getAuthorName() : "N/A", 25),
-                    book.getCopiesAvailable(),
-                    book.getPrice() != null ? book.getPrice().toString() : "N/A");
+        if (count == 0) {
+            System.out.println("No books found.");
         }
     }
 
@@ -456,6 +525,33 @@ public class LibraryManagementApp {
         }
     }
 
+    private static void searchBooks() {
+        System.out.println("\n--- Search Books ---");
+        scanner.nextLine(); // consume newline
+        System.out.print("Enter title, ISBN or author (partial words allowed): ");
+        String term = scanner.nextLine().trim();
+
+        List<Book> books = libraryService.searchBooks(term);
+        if (books.isEmpty()) {
+            System.out.println("No books matched '" + term + "'.");
+            return;
+        }
+
+        System.out.printf("%-5s %-30s %-20s %-25s %-8s%n",
+                "ID", "Title", "ISBN", "Author", "Copies");
+        System.out.println("-".repeat(91));
+
+        for (Book book : books) {
+            System.out.printf("%-5d %-30s %-20s %-25s %-8d%n",
+                    book.getBookId(),
+                    truncate(book.getTitle(), 30),
+                    truncate(book.getIsbn(), 20),
+                    truncate(book.getAuthorName() != null ? book.getAuthorName() : "N/A", 25),
+                    book.getCopiesAvailable());
+        }
+        System.out.println("\n" + books.size() + " book(s) found.");
+    }
+
     private static void displayBookDetails(Book book) {
         System.out.println("\n--- Book Details ---");
         System.out.println("ID: " + book.getBookId());
@@ -490,7 +586,7 @@ public class LibraryManagementApp {
         String isbn = scanner.nextLine().trim();
         if (!isbn.isEmpty()) book.setIsbn(isbn);
 
-        if (bookDAO.updateBook(book)) {
+        if (libraryService.updateBook(book)) {
             System.out.println("Book updated successfully!");
         } else {
             System.out.println("Failed to update book.");
@@ -513,7 +609,7 @@ public class LibraryManagementApp {
         String confirmation = scanner.nextLine().trim().toLowerCase();
 
         if (confirmation.equals("y") || confirmation.equals("yes")) {
-            if (bookDAO.deleteBook(bookId)) {
+            if (libraryService.deleteBook(bookId)) {
                 System.out.println("Book deleted successfully!");
             } else {
                 System.out.println("Failed to delete book. Active loans may exist for this book.");
@@ -630,25 +726,29 @@ public class LibraryManagementApp {
 
     private static void viewAllMembers() {
         System.out.println("\n--- All Members ---");
-        List<Member> members = memberDAO.getAllMembers();
-
-        if (members.isEmpty()) {
-            System.out.println("No members found.");
-            return;
+        int count = 0;
+
+        try (Stream<Member> members = memberDAO.streamAllMembers()) {
+            Iterator<Member> it = members.iterator();
+            while (it.hasNext()) {
+                Member member = it.next();
+                if (count++ == 0) {
+                    System.out.printf("%-5s %-25s %-30s %-15s %-12s %-10s%n",
+                            "ID", "Name", "Email", "Phone", "Join Date", "Type");
+                    System.out.println("-".repeat(100));
+                }
+                System.out.printf("%-5d %-25s %-30s %-15s %-12s %-10s%n",
+                        member.getMemberId(),
+                        truncate(member.getName(), 25),
+                        truncate(member.getEmail(), 30),
+                        truncate(member.getPhone(), 15),
+                        member.getJoinDate(),
+                        member.getMembershipType());
+            }
         }
 
-        System.out.printf("%-5s %-25s %-30s %-15s %-12s %-10s%n",
-                "ID", "Name", "Email", "Phone", "Join Date", "Type");
-        System.out.println("-".repeat(100));
-
-        for (Member member : members) {
-            System.out.printf("%-5d %-25s %-30s %-15s %-12s %-10s%n",
-                    member.getMemberId(),
-                    truncate(member.getName(), 25),
-                    truncate(member.getEmail(), 30),
-                    truncate(member.getPhone(), 15),
-                    member.getJoinDate(),
-                    member.getMembershipType());
+        if (count == 0) {
+            System.out.println("No members found.");
         }
     }
 
@@ -703,7 +803,7 @@ public class LibraryManagementApp {
         System.out.println("Max Books Allowed: " + member.getMaxBooksAllowed());
         System.out.println("Loan Duration: " + member.getLoanDurationDays() + " days");
 
-        int activeLoans = memberDAO.getActiveLoanCount(member.getMemberId());
+        int activeLoans = ActiveLoanCounter.getInstance().getActiveLoanCount(member.getMemberId());
         System.out.println("Current Active Loans: " + activeLoans);
     }
 
@@ -880,7 +980,7 @@ public class LibraryManagementApp {
         System.out.println("-".repeat(55));
 
         for (Member member : members) {
-            int activeLoans = memberDAO.getActiveLoanCount(member.getMemberId());
+            int activeLoans = ActiveLoanCounter.getInstance().getActiveLoanCount(member.getMemberId());
             System.out.printf("%-5d %-25s %-10s %-12d%n",
                     member.getMemberId(),
                     truncate(member.getName(), 25),
@@ -1058,27 +1158,7 @@ public class LibraryManagementApp {
     private static void showLibraryStatistics() {
         System.out.println("\n--- Library Statistics Overview ---");
         LibraryService.LibraryStatistics stats = libraryService.getLibraryStatistics();
-
-        System.out.println("====================================================");
-        System.out.println("                LIBRARY OVERVIEW");
-        System.out.println("====================================================");
-        System.out.println("Total Authors: " + stats.getTotalAuthors());
-        System.out.println("Total Books: " + stats.getTotalBooks());
-        System.out.println("Total Copies: " + stats.getTotalCopies());
-        System.out.println("Total Members: " + stats.getTotalMembers());
-        System.out.println("Active Loans: " + stats.getActiveLoans());
-        System.out.println("Overdue Loans: " + stats.getOverdueLoans());
-
-        if (stats.getTotalMembers() > 0) {
-            double loanRatio = (double) stats.getActiveLoans() / stats.getTotalMembers();
-            System.out.printf("Average Loans per Member: %.2f%n", loanRatio);
-        }
-
-        if (stats.getActiveLoans() > 0) {
-            double overduePercentage = (double) stats.getOverdueLoans() / stats.getActiveLoans() * 100;
-            System.out.printf("Overdue Percentage: %.2f%%%n", overduePercentage);
-        }
-        System.out.println("====================================================");
+        ReportFormatter.printLibraryOverview(System.out, stats);
     }
 
     private static void showMemberLoanSummary() {
@@ -1095,7 +1175,7 @@ public class LibraryManagementApp {
         System.out.println("-".repeat(70));
 
         for (Member member : members) {
-            int activeLoans = memberDAO.getActiveLoanCount(member.getMemberId());
+            int activeLoans = ActiveLoanCounter.getInstance().getActiveLoanCount(member.getMemberId());
             System.out.printf("%-5d %-25s %-10s %-12d %-10d%n",
                     member.getMemberId(),
                     truncate(member.getName(), 25),
@@ -1107,135 +1187,72 @@ public class LibraryManagementApp {
 
     private static void showBookAvailabilityReport() {
         System.out.println("\n--- Book Availability Report ---");
-        List<Book> books = bookDAO.getAllBooks();
-
-        if (books.isEmpty()) {
-            System.out.println("No books found.");
+        LibraryService.AvailabilitySummary summary = libraryService.getAvailabilitySummary();
+        ReportFormatter.printAvailabilitySummary(System.out, summary);
+        if (summary.getTotalBooks() == 0) {
             return;
         }
 
-        int availableBooks = 0;
-        int outOfStockBooks = 0;
-
-        System.out.printf("%-5s %-30s %-20s %-10s %-8s%n",
-                "ID", "Title", "Author", "Copies", "Status");
-        System.out.println("-".repeat(80));
-
-        for (Book book : books) {
-            String status = book.getCopiesAvailable() > 0 ? "Available" : "Out of Stock";
-            if (book.getCopiesAvailable() > 0) {
-                availableBooks++;
-            } else {
-                outOfStockBooks++;
+        scanner.nextLine(); // consume newline
+        System.out.print("\nList availability for every book? (y/N): ");
+        String answer = scanner.nextLine().trim().toLowerCase();
+        if (answer.equals("y") || answer.equals("yes")) {
+            // Detail rows are streamed, so this works for any catalog size
+            try (Stream<Book> books = libraryService.streamBookAvailability()) {
+                ReportFormatter.printBookAvailability(System.out, books::iterator);
             }
-
-            System.out.printf("%-5d %-30s %-20s %-10d %-8s%n",
-                    book.getBookId(),
-                    truncate(book.getTitle(), 30),
-                    truncate(book.getAuthorName() != null ? book.getAuthorName() : "N/A", 20),
-                    book.getCopiesAvailable(),
-                    status);
         }
-
-        System.out.println("\nSummary:");
-        System.out.println("Available Books: " + availableBooks);
-        System.out.println("Out of Stock Books: " + outOfStockBooks);
     }
 
     private static void showOverdueLoansReport() {
         System.out.println("\n--- Overdue Loans Report ---");
-        List<BookLoan> overdueLoans = bookLoanDAO.getOverdueLoans();
-
-        if (overdueLoans.isEmpty()) {
-            System.out.println("No overdue loans found.");
-            return;
-        }
-
-        BigDecimal totalFines = BigDecimal.ZERO;
-
-        System.out.printf("%-5s %-25s %-20s %-12s %-10s %-10s%n",
-                "ID", "Book", "Member", "Due Date", "Days Late", "Fine");
-        System.out.println("-".repeat(90));
-
-        for (BookLoan loan : overdueLoans) {
-            totalFines = totalFines.add(loan.getFineAmount());
-            System.out.printf("%-5d %-25s %-20s %-12s %-10d $%-9.2f%n",
-                    loan.getLoanId(),
-                    truncate(loan.getBookTitle() != null ? loan.getBookTitle() : "N/A", 25),
-                    truncate(loan.getMemberName() != null ? loan.getMemberName() : "N/A", 20),
-                    loan.getDueDate(),
-                    loan.getDaysOverdue(),
-                    loan.getFineAmount());
-        }
-
-        System.out.println("\nTotal Overdue Loans: " + overdueLoans.size());
-        System.out.printf("Total Fines: $%.2f%n", totalFines);
+        ReportFormatter.printOverdueLoans(System.out, bookLoanDAO.getOverdueLoans());
     }
 
     private static void showAuthorWiseBookCount() {
         System.out.println("\n--- Author-wise Book Count ---");
-        List<Author> authors = authorDAO.getAllAuthors();
-        List<Book> books = bookDAO.getAllBooks();
+        int pageSize = LibraryConfig.getInt("library.report.pageSize", 50);
+        Page.Key after = null;
+        boolean first = true;
 
-        if (authors.isEmpty()) {
-            System.out.println("No authors found.");
-            return;
-        }
-
-        System.out.printf("%-5s %-30s %-12s %-15s%n",
-                "ID", "Author Name", "Book Count", "Total Copies");
-        System.out.println("-".repeat(70));
-
-        for (Author author : authors) {
-            int bookCount = 0;
-            int totalCopies = 0;
+        // Counting is grouped in the database a page of authors at a time, so this scales with the catalog
+        scanner.nextLine(); // consume newline
+        while (true) {
+            Page<ReportRepository.AuthorBookCount> page = reportDAO.getAuthorBookCountsPage(after, pageSize);
 
-            for (Book book : books) {
-                if (book.getAuthorId() == author.getAuthorId()) {
-                    bookCount++;
-                    totalCopies += book.getCopiesAvailable();
+            if (first) {
+                if (page.getItems().isEmpty()) {
+                    System.out.println("No authors found.");
+                    return;
                 }
+                System.out.printf("%-5s %-30s %-12s %-15s%n",
+                        "ID", "Author Name", "Book Count", "Total Copies");
+                System.out.println("-".repeat(70));
+                first = false;
+            }
+
+            for (ReportRepository.AuthorBookCount row : page.getItems()) {
+                System.out.printf("%-5d %-30s %-12d %-15d%n",
+                        row.getAuthorId(),
+                        truncate(row.getAuthorName(), 30),
+                        row.getBookCount(),
+                        row.getTotalCopies());
             }
 
-            System.out.printf("%-5d %-30s %-12d %-15d%n",
-                    author.getAuthorId(),
-                    truncate(author.getName(), 30),
-                    bookCount,
-                    totalCopies);
+            if (!page.hasNext()) {
+                return;
+            }
+            System.out.print("-- Enter for the next " + pageSize + " authors, Q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            after = page.getNextKey();
         }
     }
 
     private static void showMembershipDistribution() {
         System.out.println("\n--- Membership Type Distribution ---");
-        List<Member> members = memberDAO.getAllMembers();
-
-        if (members.isEmpty()) {
-            System.out.println("No members found.");
-            return;
-        }
-
-        int basicCount = 0;
-        int premiumCount = 0;
-
-        for (Member member : members) {
-            if (member.getMembershipType() == Member.MembershipType.BASIC) {
-                basicCount++;
-            } else {
-                premiumCount++;
-            }
-        }
-
-        int total = members.size();
-        double basicPercentage = (double) basicCount / total * 100;
-        double premiumPercentage = (double) premiumCount / total * 100;
-
-        System.out.println("====================================================");
-        System.out.println("           MEMBERSHIP DISTRIBUTION");
-        System.out.println("====================================================");
-        System.out.printf("Basic Members: %d (%.1f%%)%n", basicCount, basicPercentage);
-        System.out.printf("Premium Members: %d (%.1f%%)%n", premiumCount, premiumPercentage);
-        System.out.println("Total Members: " + total);
-        System.out.println("====================================================");
+        ReportFormatter.printMembershipDistribution(System.out, libraryService.getMembershipDistribution());
     }
 
     // ==================== SYSTEM OPERATIONS ====================
@@ -1251,6 +1268,9 @@ public class LibraryManagementApp {
             System.out.println("3. Initialize Sample Data");
             System.out.println("4. Clear All Data (Dangerous!)");
             System.out.println("5. Backup Database");
+            System.out.println("6. Cache & Connection Pool Statistics");
+            System.out.println("7. Bulk Import from CSV/TSV");
+            System.out.println("8. Query Metrics");
             System.out.println("0. Back to Main Menu");
             System.out.println("====================================================");
 
@@ -1272,6 +1292,15 @@ public class LibraryManagementApp {
                 case 5:
                     System.out.println("Database backup feature not implemented yet.");
                     break;
+                case 6:
+                    showCacheStatistics();
+                    break;
+                case 7:
+                    bulkImport();
+                    break;
+                case 8:
+                    showQueryMetrics();
+                    break;
                 case 0:
                     return;
                 default:
@@ -1297,9 +1326,96 @@ public class LibraryManagementApp {
 
     private static void testDatabaseConnection() {
         System.out.println("\n--- Testing Database Connection ---");
+        if (databaseUnavailable()) return;
         DatabaseConnection.testConnection();
     }
 
+    private static void bulkImport() {
+        System.out.println("\n--- Bulk Import ---");
+        System.out.println("1. Authors (name, email, birth_year, biography)");
+        System.out.println("2. Books (title, isbn, publication_year, price, copies, author_id)");
+        System.out.println("3. Members (name, email, phone, join_date, membership_type)");
+        int type = getIntInput("Select data type: ");
+
+        scanner.nextLine(); // consume newline
+        System.out.print("Path to CSV/TSV file (first line is the header): ");
+        String path = scanner.nextLine().trim();
+
+        try {
+            BulkResult result;
+            switch (type) {
+                case 1:
+                    result = bulkImportService.importAuthors(path);
+                    break;
+                case 2:
+                    result = bulkImportService.importBooks(path);
+                    break;
+                case 3:
+                    result = bulkImportService.importMembers(path);
+                    break;
+                default:
+                    System.out.println("Invalid choice!");
+                    return;
+            }
+            System.out.println(result);
+            if (result.getFailed() > 0) {
+                System.out.println("Rejected rows were written to " + path + ".rejects");
+            }
+        } catch (IOException e) {
+            System.out.println("Import stopped: " + e.getMessage());
+            System.out.println("Run the import again to resume after the last committed chunk.");
+        }
+    }
+
+    private static void showCacheStatistics() {
+        System.out.println("\n--- Cache & Connection Pool Statistics ---");
+        for (LruCache.CacheStats stats : EntityCache.getStats()) {
+            System.out.println(stats);
+        }
+        if (!Repositories.isInMemory()) {
+            System.out.println(DatabaseConnection.getPoolStats());
+        }
+        String lockStats = LibraryService.getCheckoutLockStats();
+        if (lockStats != null) {
+            System.out.println(lockStats);
+        }
+        TransactionExecutor.getRetryStats().forEach(System.out::println);
+        InventoryStore inventory = InventoryStore.getInstance();
+        if (inventory.isOpen()) {
+            System.out.println("Inventory file: " + inventory.getPendingCount() + " book(s) waiting to be written back");
+        }
+    }
+
+    private static void showQueryMetrics() {
+        System.out.println("\n--- Query Metrics ---");
+        if (!QueryMetrics.isEnabled()) {
+            System.out.println("Query metrics are disabled (-Dlibrary.metrics.enabled=false).");
+            return;
+        }
+        QueryMetrics.Snapshot snapshot = QueryMetrics.snapshot();
+        System.out.println(snapshot);
+        if (SlowQueryLog.isEnabled()) {
+            System.out.println("Slow statements are logged to " + SlowQueryLog.getFile().toAbsolutePath());
+        }
+
+        scanner.nextLine(); // consume newline
+        System.out.print("J = write JSON dump, R = reset counters, Enter = back: ");
+        String action = scanner.nextLine().trim().toLowerCase();
+
+        if (action.equals("j")) {
+            Path file = Paths.get("query-metrics-" + System.currentTimeMillis() + ".json");
+            try {
+                Files.write(file, snapshot.toJson().getBytes(StandardCharsets.UTF_8));
+                System.out.println("Metrics written to " + file.toAbsolutePath());
+            } catch (IOException e) {
+                System.out.println("Could not write metrics: " + e.getMessage());
+            }
+        } else if (action.equals("r")) {
+            QueryMetrics.reset();
+            System.out.println("Query metrics reset.");
+        }
+    }
+
     private static void initializeSampleData() {
         System.out.println("\n--- Initialize Sample Data ---");
         System.out.print("This will add sample authors, books, and members. Continue? (y/N): ");
@@ -1340,7 +1456,7 @@ public class LibraryManagementApp {
             };
 
             for (Book book : sampleBooks) {
-                if (bookDAO.createBook(book)) {
+                if (libraryService.addBook(book)) {
                     System.out.println("Created: " + book.getTitle());
                 }
             }
@@ -1383,6 +1499,7 @@ public class LibraryManagementApp {
 
     private static void debugLoanIssues() {
         System.out.println("\n--- Debug Loan Issues ---");
+        if (databaseUnavailable()) return;
 
         try {
             Connection conn = DatabaseConnection.getConnection();
@@ -1443,6 +1560,7 @@ public class LibraryManagementApp {
 
     private static void forceUpdateOverdueLoans() {
         System.out.println("\n--- Force Update Overdue Loans ---");
+        if (databaseUnavailable()) return;
 
         try {
             Connection conn = DatabaseConnection.getConnection();
@@ -1499,6 +1617,7 @@ public class LibraryManagementApp {
 
     private static void showRawLoanData() {
         System.out.println("\n--- Raw Loan Data ---");
+        if (databaseUnavailable()) return;
 
         try {
             Connection conn = DatabaseConnection.getConnection();
@@ -1541,6 +1660,7 @@ public class LibraryManagementApp {
 
     private static void diagnoseDatabaseConstraints() {
         System.out.println("\n--- Diagnose Database Constraints ---");
+        if (databaseUnavailable()) return;
 
         try {
             Connection conn = DatabaseConnection.getConnection();
@@ -1746,8 +1866,6 @@ public class LibraryManagementApp {
     }
 
     private static String truncate(String str, int maxLength) {
-        if (str == null) return "N/A";
-        if (str.length() <= maxLength) return str;
-        return str.substring(0, maxLength - 3) + "...";
+        return ReportFormatter.truncate(str, maxLength);
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package Day_27To31.library_management_system.src.main.java.com.library.app;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+import Day_27To31.library_management_system.src.main.java.com.library.service.LibraryService;
+
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Console rendering of the reports, separated from data access so it can be reused and measured
+ */
+public final class ReportFormatter {
+
+    private ReportFormatter() {}
+
+    public static void printLibraryOverview(PrintStream out, LibraryService.LibraryStatistics stats) {
+        out.println("====================================================");
+        out.println("                LIBRARY OVERVIEW");
+        out.println("====================================================");
+        out.println("Total Authors: " + stats.getTotalAuthors());
+        out.println("Total Books: " + stats.getTotalBooks());
+        out.println("Total Copies: " + stats.getTotalCopies());
+        out.println("Total Members: " + stats.getTotalMembers());
+        out.println("Active Loans: " + stats.getActiveLoans());
+        out.println("Overdue Loans: " + stats.getOverdueLoans());
+
+        if (stats.getTotalMembers() > 0) {
+            double loanRatio = (double) stats.getActiveLoans() / stats.getTotalMembers();
+            out.printf("Average Loans per Member: %.2f%n", loanRatio);
+        }
+
+        if (stats.getActiveLoans() > 0) {
+            double overduePercentage = (double) stats.getOverdueLoans() / stats.getActiveLoans() * 100;
+            out.printf("Overdue Percentage: %.2f%%%n", overduePercentage);
+        }
+        out.println("====================================================");
+    }
+
+    /**
+     * Per-book availability table
+     */
+    public static void printBookAvailability(PrintStream out, Iterable<Book> books) {
+        boolean empty = true;
+
+        for (Book book : books) {
+            if (empty) {
+                out.printf("%-5s %-30s %-20s %-10s %-8s%n",
+                        "ID", "Title", "Author", "Copies", "Status");
+                out.println("-".repeat(80));
+                empty = false;
+            }
+
+            String status = book.getCopiesAvailable() > 0 ? "Available" : "Out of Stock";
+            out.printf("%-5d %-30s %-20s %-10d %-8s%n",
+                    book.getBookId(),
+                    truncate(book.getTitle(), 30),
+                    truncate(book.getAuthorName() != null ? book.getAuthorName() : "N/A", 20),
+                    book.getCopiesAvailable(),
+                    status);
+        }
+
+        if (empty) {
+            out.println("No books found.");
+        }
+    }
+
+    public static void printAvailabilitySummary(PrintStream out, LibraryService.AvailabilitySummary summary) {
+        if (summary.getTotalBooks() == 0) {
+            out.println("No books found.");
+            return;
+        }
+        out.println("Summary:");
+        out.println("Available Books: " + summary.getAvailableBooks());
+        out.println("Out of Stock Books: " + summary.getOutOfStockBooks());
+    }
+
+    public static void printMembershipDistribution(PrintStream out, LibraryService.MembershipDistribution distribution) {
+        if (distribution.getTotalMembers() == 0) {
+            out.println("No members found.");
+            return;
+        }
+        out.println("====================================================");
+        out.println("           MEMBERSHIP DISTRIBUTION");
+        out.println("====================================================");
+        out.printf("Basic Members: %d (%.1f%%)%n", distribution.getBasicMembers(), distribution.getBasicPercentage());
+        out.printf("Premium Members: %d (%.1f%%)%n", distribution.getPremiumMembers(), distribution.getPremiumPercentage());
+        out.println("Total Members: " + distribution.getTotalMembers());
+        out.println("====================================================");
+    }
+
+    public static void printOverdueLoans(PrintStream out, List<BookLoan> overdueLoans) {
+        if (overdueLoans.isEmpty()) {
+            out.println("No overdue loans found.");
+            return;
+        }
+
+        BigDecimal totalFines = BigDecimal.ZERO;
+
+        out.printf("%-5s %-25s %-20s %-12s %-10s %-10s%n",
+                "ID", "Book", "Member", "Due Date", "Days Late", "Fine");
+        out.println("-".repeat(90));
+
+        for (BookLoan loan : overdueLoans) {
+            totalFines = totalFines.add(loan.getFineAmount());
+            out.printf("%-5d %-25s %-20s %-12s %-10d $%-9.2f%n",
+                    loan.getLoanId(),
+                    truncate(loan.getBookTitle() != null ? loan.getBookTitle() : "N/A", 25),
+                    truncate(loan.getMemberName() != null ? loan.getMemberName() : "N/A", 20),
+                    loan.getDueDate(),
+                    loan.getDaysOverdue(),
+                    loan.getFineAmount());
+        }
+
+        out.println("\nTotal Overdue Loans: " + overdueLoans.size());
+        out.printf("Total Fines: $%.2f%n", totalFines);
+    }
+
+    public static String truncate(String str, int maxLength) {
+        if (str == null) return "N/A";
+        if (str.length() <= maxLength) return str;
+        return str.substring(0, maxLength - 3) + "...";
+    }
+}
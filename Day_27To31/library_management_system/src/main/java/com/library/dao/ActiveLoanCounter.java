@@ -0,0 +1,217 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.util.ConcurrentIntObjectMap;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory member -> active loan count index.
+ *
+ * Warmed from the LoanJournal's open loans when the journal is open, otherwise with one
+ * GROUP BY query, then kept current by issue/return commits and periodically reconciled
+ * against book_loans. Until it has been warmed, lookups fall back to
+ * MemberRepository.getActiveLoanCount.
+ *
+ * A loan change holds the read side of changeGate from the moment it becomes visible to a
+ * count scan (its commit) until it has been applied here. A reconcile fixes its scan's snapshot
+ * under the write side, so every change is either in the scan and already applied, or not in
+ * the scan and recorded as a delta on top of it - never both, never neither.
+ */
+public final class ActiveLoanCounter {
+    private static final ActiveLoanCounter INSTANCE = new ActiveLoanCounter();
+
+    private static final long RECONCILE_INTERVAL_MILLIS =
+            LibraryConfig.getLong("library.loanCounter.reconcileIntervalMs", 600_000);
+
+    private final ConcurrentIntObjectMap<AtomicInteger> counts = new ConcurrentIntObjectMap<>();
+    private final MemberRepository memberDAO = Repositories.members();
+    private final LoanRepository bookLoanDAO = Repositories.loans();
+
+    private final ReentrantReadWriteLock changeGate = new ReentrantReadWriteLock();
+    // Changes committed after the running reconcile's snapshot, replayed on top of the scanned counts
+    private volatile ConcurrentIntObjectMap<AtomicInteger> pendingDeltas;
+    private volatile boolean warmed;
+    private ScheduledExecutorService reconciler;
+
+    private ActiveLoanCounter() {}
+
+    public static ActiveLoanCounter getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    /**
+     * Load all counts (from the loan journal if it is open, else the database) and start the
+     * periodic reconcile job
+     */
+    public synchronized boolean warm() {
+        LoanJournal journal = LoanJournal.getInstance();
+        boolean fromJournal = journal.isOpen() && load(atSnapshot -> {
+            AtomicReference<Map<Integer, Integer>> counts = new AtomicReference<>();
+            atSnapshot.accept(() -> counts.set(journal.getActiveLoanCountsByMember()));
+            return counts.get();
+        });
+        if (!fromJournal && !reconcile()) {
+            return false;
+        }
+        if (reconciler == null && (RECONCILE_INTERVAL_MILLIS > 0 || fromJournal)) {
+            reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "active-loan-reconciler");
+                t.setDaemon(true);
+                return t;
+            });
+            if (RECONCILE_INTERVAL_MILLIS > 0) {
+                reconciler.scheduleWithFixedDelay(this::reconcile,
+                        RECONCILE_INTERVAL_MILLIS, RECONCILE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fromJournal && journal.wasRecoveredFromCrash()) {
+            // The journal may lack the events of the last group before the crash
+            reconciler.execute(this::reconcile);
+        }
+        return true;
+    }
+
+    public int getActiveLoanCount(int memberId) {
+        if (!warmed) {
+            return memberDAO.getActiveLoanCount(memberId);
+        }
+        // Counts are kept unclamped: a return's -1 can land before its issue's +1
+        AtomicInteger count = counts.get(memberId);
+        return count == null ? 0 : Math.max(0, count.get());
+    }
+
+    /**
+     * Count a new loan once the surrounding transaction commits
+     */
+    public void loanIssued(int memberId) {
+        applyOnCommit(memberId, 1);
+    }
+
+    /**
+     * Release a loan once the surrounding transaction commits
+     */
+    public void loanReturned(int memberId) {
+        applyOnCommit(memberId, -1);
+    }
+
+    private void applyOnCommit(int memberId, int delta) {
+        UnitOfWork.holdDuringCommit(changeGate.readLock());
+        UnitOfWork.afterCommit(() -> apply(memberId, delta));
+    }
+
+    /**
+     * For stores whose changes are visible the moment they are made (InMemoryLoanRepository):
+     * hold this from before making a loan change until applyNow has counted it
+     */
+    Lock changeLock() {
+        return changeGate.readLock();
+    }
+
+    /**
+     * Count a change that is already visible to scans; the caller holds changeLock()
+     */
+    void applyNow(int memberId, int delta) {
+        apply(memberId, delta);
+    }
+
+    /**
+     * Replace the in-memory counts with the database's, keeping changes that committed during the scan.
+     * @return false if the database could not be read
+     */
+    public synchronized boolean reconcile() {
+        return load(bookLoanDAO::getActiveLoanCountsByMember);
+    }
+
+    /**
+     * Replace the counts with the source's, keeping changes that committed after its snapshot
+     */
+    private synchronized boolean load(CountSource source) {
+        ConcurrentIntObjectMap<AtomicInteger> deltas = new ConcurrentIntObjectMap<>();
+        Map<Integer, Integer> loaded;
+        try {
+            loaded = source.read(pinSnapshot -> {
+                // No change is between its commit and its apply while the snapshot is fixed
+                changeGate.writeLock().lock();
+                try {
+                    pinSnapshot.run();
+                    pendingDeltas = deltas;
+                } finally {
+                    changeGate.writeLock().unlock();
+                }
+            });
+
+            if (loaded == null) {
+                return false;
+            }
+
+            int[] drift = new int[1];
+            // Members whose open loans all went away are reset rather than removed, so a concurrent
+            // increment on the same counter object is never lost. Each member is set under its
+            // counter's monitor, the one apply() records its delta and change under.
+            counts.forEach((memberId, count) -> {
+                if (!loaded.containsKey(memberId) && merge(count, 0, deltas.get(memberId))) {
+                    drift[0]++;
+                }
+            });
+
+            for (Map.Entry<Integer, Integer> e : loaded.entrySet()) {
+                AtomicInteger current = counts.computeIfAbsent(e.getKey(), id -> new AtomicInteger());
+                if (merge(current, e.getValue(), deltas.get(e.getKey())) && warmed) {
+                    drift[0]++;
+                }
+            }
+
+            if (warmed && drift[0] > 0) {
+                System.out.println("Active loan counter reconciled " + drift[0] + " member(s) with the database");
+            }
+            warmed = true;
+            return true;
+        } finally {
+            // Kept until every member is merged: a change applied mid-merge is still recorded
+            pendingDeltas = null;
+        }
+    }
+
+    /**
+     * @return true if the counter did not already hold the merged value
+     */
+    private static boolean merge(AtomicInteger count, int scanned, AtomicInteger delta) {
+        synchronized (count) {
+            int expected = scanned + (delta != null ? delta.get() : 0);
+            return count.getAndSet(expected) != expected;
+        }
+    }
+
+    private void apply(int memberId, int delta) {
+        AtomicInteger count = counts.computeIfAbsent(memberId, id -> new AtomicInteger());
+        synchronized (count) {
+            ConcurrentIntObjectMap<AtomicInteger> deltas = pendingDeltas;
+            if (deltas != null) {
+                deltas.computeIfAbsent(memberId, id -> new AtomicInteger()).addAndGet(delta);
+            }
+            count.addAndGet(delta);
+        }
+    }
+
+    /**
+     * A count scan. atSnapshot runs the step that fixes what the scan will see, e.g. opening a
+     * consistent read view, so the counter can line it up with the changes it has applied.
+     */
+    private interface CountSource {
+        Map<Integer, Integer> read(Consumer<Runnable> atSnapshot);
+    }
+}
@@ -6,20 +6,30 @@ import Day_27To31.library_management_system.src.main.java.com.library.util.Datab
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
-public class AuthorDAO {
+public class AuthorDAO implements AuthorRepository {
     private static final String INSERT_AUTHOR =
             "INSERT INTO AUTHORS (NAME, EMAIL, BIRTH_YEAR, BIOGRAPHY) VALUES (?,?,?,?)";
     private static final String SELECT_AUTHOR_BY_ID =
             "SELECT * FROM AUTHORS WHERE AUTHOR_ID = ?";
     private static final String SELECT_ALL_AUTHORS =
             "SELECT * FROM AUTHORS ORDER BY NAME";
+    // Keyset pages over idx_author_name (name, author_id)
+    private static final String SELECT_AUTHORS_FIRST_PAGE =
+            "SELECT * FROM AUTHORS ORDER BY NAME, AUTHOR_ID LIMIT ?";
+    private static final String SELECT_AUTHORS_PAGE_AFTER =
+            "SELECT * FROM AUTHORS WHERE NAME >= ? AND (NAME > ? OR AUTHOR_ID > ?) ORDER BY NAME, AUTHOR_ID LIMIT ?";
+    private static final String STREAM_ALL_AUTHORS =
+            "SELECT * FROM AUTHORS ORDER BY NAME, AUTHOR_ID";
     private static final String UPDATE_AUTHOR =
             "UPDATE AUTHORS SET NAME = ?, EMAIL =?, BIRTH_YEAR = ?, BIOGRAPHY = ? WHERE AUTHOR_ID = ?";
     private static final String DELETE_AUTHOR =
             "DELETE FROM AUTHORS WHERE AUTHOR_ID = ?";
     private static final String CHECK_AUTHOR_EXISTS =
             "SELECT COUNT(*) FROM AUTHORS WHERE email = ?";
+    private static final String SELECT_EXISTING_EMAILS =
+            "SELECT EMAIL FROM AUTHORS WHERE EMAIL IN ";
 
     public boolean createAuthor(Author author) {
         Connection conn = null;
@@ -33,15 +43,7 @@ public class AuthorDAO {
                 return false;
             }
             pstmt = conn.prepareStatement(INSERT_AUTHOR, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setString(1, author.getName());
-            pstmt.setString(2, author.getEmail());
-            if (author.getBirthYear() != null) {
-                pstmt.setInt(3, author.getBirthYear());
-            } else {
-                pstmt.setNull(3, Types.INTEGER);
-            }
-
-            pstmt.setString(4, author.getBiography());
+            bindInsertParameters(pstmt, author);
 
             int rowsAffected = pstmt.executeUpdate();
 
@@ -61,6 +63,32 @@ public class AuthorDAO {
         return false;
     }
 
+    /**
+     * Insert many authors with batched multi-row INSERTs, one transaction per chunk.
+     * Authors whose email already exists (or repeats within the list) are skipped.
+     */
+    public BulkResult createAuthors(List<Author> authors) {
+        return createAuthors(authors, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkResult createAuthors(List<Author> authors, int chunkSize) {
+        return new BulkInsert<Author>("authors", INSERT_AUTHOR, SELECT_EXISTING_EMAILS,
+                Author::getEmail, this::bindInsertParameters, Author::setAuthorId)
+                .run(authors, chunkSize);
+    }
+
+    private void bindInsertParameters(PreparedStatement pstmt, Author author) throws SQLException {
+        pstmt.setString(1, author.getName());
+        pstmt.setString(2, author.getEmail());
+        if (author.getBirthYear() != null) {
+            pstmt.setInt(3, author.getBirthYear());
+        } else {
+            pstmt.setNull(3, Types.INTEGER);
+        }
+
+        pstmt.setString(4, author.getBiography());
+    }
+
     public Author getAuthorById(int authorId) {
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -108,6 +136,57 @@ public class AuthorDAO {
         return authors;
     }
 
+    /**
+     * Authors ordered by name, starting after the given key (null for the first page)
+     */
+    public Page<Author> getAuthorsPage(Page.Key after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        List<Author> authors = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            if (after == null) {
+                pstmt = conn.prepareStatement(SELECT_AUTHORS_FIRST_PAGE);
+                pstmt.setInt(1, limit + 1);
+            } else {
+                pstmt = conn.prepareStatement(SELECT_AUTHORS_PAGE_AFTER);
+                pstmt.setString(1, after.getSortValue());
+                pstmt.setString(2, after.getSortValue());
+                pstmt.setInt(3, after.getId());
+                pstmt.setInt(4, limit + 1);
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                authors.add(extractAuthorFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving authors page: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+
+        if (authors.size() <= limit) {
+            return new Page<>(authors, null);
+        }
+        authors.remove(limit);
+        Author last = authors.get(limit - 1);
+        return new Page<>(authors, new Page.Key(last.getName(), last.getAuthorId()));
+    }
+
+    /**
+     * All authors ordered by name, read lazily in fetch-size batches.
+     * The stream holds a connection until it is closed, so use try-with-resources.
+     */
+    public Stream<Author> streamAllAuthors() {
+        return ResultSetStream.query(STREAM_ALL_AUTHORS, "authors", this::extractAuthorFromResultSet);
+    }
+
     public boolean updateAuthor(Author author) {
         Connection conn = null;
         PreparedStatement pstmt = null;
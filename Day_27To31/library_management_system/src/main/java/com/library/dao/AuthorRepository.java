@@ -0,0 +1,46 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Author storage. AuthorDAO keeps authors in MySQL, InMemoryAuthorRepository in the process;
+ * pick one through Repositories.authors().
+ */
+public interface AuthorRepository {
+
+    /**
+     * Insert an author and set its generated id; false if the email is taken
+     */
+    boolean createAuthor(Author author);
+
+    /**
+     * Insert many authors, skipping those whose email already exists (or repeats within the list)
+     */
+    BulkResult createAuthors(List<Author> authors);
+
+    BulkResult createAuthors(List<Author> authors, int chunkSize);
+
+    Author getAuthorById(int authorId);
+
+    List<Author> getAllAuthors();
+
+    /**
+     * Authors ordered by name, starting after the given key (null for the first page)
+     */
+    Page<Author> getAuthorsPage(Page.Key after, int limit);
+
+    /**
+     * All authors ordered by name; close the stream when done
+     */
+    Stream<Author> streamAllAuthors();
+
+    boolean updateAuthor(Author author);
+
+    /**
+     * Delete an author; refused while books still reference them
+     */
+    boolean deleteAuthor(int authorId);
+}
@@ -2,28 +2,52 @@ package Day_27To31.library_management_system.src.main.java.com.library.dao;
 
 import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
 import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
-public class BookDAO {
+public class BookDAO implements BookRepository {
 
     // SQL Queries
     private static final String INSERT_BOOK =
-            "INSERT INTO books (title, isbn, publication_year, price, copies_available, author_id) VALUES (?, ?, ?, ?, ?, ?)";
+            "INSERT INTO books (title, isbn, publication_year, price, copies_available, total_copies, author_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
     private static final String SELECT_BOOK_BY_ID =
             "SELECT b.*, a.name as author_name FROM books b JOIN authors a ON b.author_id = a.author_id WHERE b.book_id = ?";
     private static final String SELECT_ALL_BOOKS =
             "SELECT b.*, a.name as author_name FROM books b JOIN authors a ON b.author_id = a.author_id ORDER BY b.title";
+    // Keyset pages over idx_book_title (title, book_id); "title >= ?" keeps the seek a range scan on the index
+    private static final String SELECT_BOOKS_FIRST_PAGE =
+            "SELECT b.*, a.name as author_name FROM books b JOIN authors a ON b.author_id = a.author_id " +
+            "ORDER BY b.title, b.book_id LIMIT ?";
+    private static final String SELECT_BOOKS_PAGE_AFTER =
+            "SELECT b.*, a.name as author_name FROM books b JOIN authors a ON b.author_id = a.author_id " +
+            "WHERE b.title >= ? AND (b.title > ? OR b.book_id > ?) ORDER BY b.title, b.book_id LIMIT ?";
+    private static final String STREAM_ALL_BOOKS =
+            "SELECT b.*, a.name as author_name FROM books b JOIN authors a ON b.author_id = a.author_id " +
+            "ORDER BY b.title, b.book_id";
     private static final String UPDATE_BOOK =
-            "UPDATE books SET title = ?, isbn = ?, publication_year = ?, price = ?, copies_available = ?, author_id = ? WHERE book_id = ?";
+            "UPDATE books SET title = ?, isbn = ?, publication_year = ?, price = ?, author_id = ? WHERE book_id = ?";
     private static final String DELETE_BOOK =
             "DELETE FROM books WHERE book_id = ?";
     private static final String CHECK_ISBN_EXISTS =
             "SELECT COUNT(*) FROM books WHERE isbn = ?";
+    // Recompute availability from open loans, for data loaded outside the issue/return path
+    private static final String RECONCILE_COPIES_AVAILABLE =
+            "UPDATE books b LEFT JOIN (" +
+                    "SELECT book_id, COUNT(*) AS open_loans FROM book_loans " +
+                    "WHERE status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL GROUP BY book_id" +
+                    ") l ON l.book_id = b.book_id " +
+                    "SET b.copies_available = b.total_copies - COALESCE(l.open_loans, 0)";
+    private static final String SELECT_EXISTING_ISBNS =
+            "SELECT isbn FROM books WHERE isbn IN ";
+    // Adding/removing physical copies moves both counters; the WHERE clause keeps availability >= 0
     private static final String UPDATE_COPIES =
-            "UPDATE books SET copies_available = copies_available + ? WHERE book_id = ?";
+            "UPDATE books SET copies_available = copies_available + ?, " +
+                    "total_copies = GREATEST(total_copies + ?, copies_available) " +
+                    "WHERE book_id = ? AND copies_available + ? >= 0";
 
     /**
      * Create a new book
@@ -42,23 +66,7 @@ public class BookDAO {
             }
 
             pstmt = conn.prepareStatement(INSERT_BOOK, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setString(1, book.getTitle());
-            pstmt.setString(2, book.getIsbn());
-
-            if (book.getPublicationYear() != null) {
-                pstmt.setInt(3, book.getPublicationYear());
-            } else {
-                pstmt.setNull(3, Types.INTEGER);
-            }
-
-            if (book.getPrice() != null) {
-                pstmt.setBigDecimal(4, book.getPrice());
-            } else {
-                pstmt.setNull(4, Types.DECIMAL);
-            }
-
-            pstmt.setInt(5, book.getCopiesAvailable());
-            pstmt.setInt(6, book.getAuthorId());
+            bindInsertParameters(pstmt, book);
 
             int rowsAffected = pstmt.executeUpdate();
 
@@ -66,6 +74,7 @@ public class BookDAO {
                 ResultSet generatedKeys = pstmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     book.setBookId(generatedKeys.getInt(1));
+                    trackOnCommit(book);
                 }
                 return true;
             }
@@ -82,6 +91,87 @@ public class BookDAO {
         return false;
     }
 
+    /**
+     * Insert many books with batched multi-row INSERTs, one transaction per chunk.
+     * Books whose ISBN already exists (or repeats within the list) are skipped.
+     * Inserted books get their generated id set.
+     */
+    public BulkResult createBooks(List<Book> books) {
+        return createBooks(books, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkResult createBooks(List<Book> books, int chunkSize) {
+        // Ids are set inside each chunk's transaction, so a chunk that rolls back tracks nothing
+        // and leaves its books without an id
+        return new BulkInsert<Book>("books", INSERT_BOOK, SELECT_EXISTING_ISBNS,
+                Book::getIsbn, this::bindInsertParameters, (book, bookId) -> {
+                    book.setBookId(bookId);
+                    trackOnCommit(book);
+                    UnitOfWork.afterRollback(() -> book.setBookId(0));
+                })
+                .run(books, chunkSize);
+    }
+
+    /**
+     * Track a newly inserted book in the inventory file once its row is committed
+     */
+    private static void trackOnCommit(Book book) {
+        int bookId = book.getBookId();
+        int copies = book.getCopiesAvailable();
+        UnitOfWork.afterCommit(() -> InventoryStore.getInstance().bookCreated(bookId, copies, copies));
+    }
+
+    /**
+     * Set copies_available = total_copies - open loans for every book
+     * (and reload the inventory file from the result if it is open)
+     * @return number of books whose availability changed, or -1 on error
+     */
+    public int reconcileCopiesAvailable() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        InventoryStore inventory = InventoryStore.getInstance();
+
+        try {
+            // Total copies changed through the file must reach the table before it is recomputed
+            if (inventory.sync() < 0) {
+                return -1;
+            }
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(RECONCILE_COPIES_AVAILABLE);
+            int changed = pstmt.executeUpdate();
+            if (inventory.isOpen() && !inventory.reload()) {
+                return -1;
+            }
+            return changed;
+        } catch (SQLException e) {
+            System.err.println("Error reconciling book copies: " + e.getMessage());
+            return -1;
+        } finally {
+            closeResources(conn, pstmt, null);
+        }
+    }
+
+    private void bindInsertParameters(PreparedStatement pstmt, Book book) throws SQLException {
+        pstmt.setString(1, book.getTitle());
+        pstmt.setString(2, book.getIsbn());
+
+        if (book.getPublicationYear() != null) {
+            pstmt.setInt(3, book.getPublicationYear());
+        } else {
+            pstmt.setNull(3, Types.INTEGER);
+        }
+
+        if (book.getPrice() != null) {
+            pstmt.setBigDecimal(4, book.getPrice());
+        } else {
+            pstmt.setNull(4, Types.DECIMAL);
+        }
+
+        pstmt.setInt(5, book.getCopiesAvailable());
+        pstmt.setInt(6, book.getCopiesAvailable());
+        pstmt.setInt(7, book.getAuthorId());
+    }
+
     /**
      * Get book by ID with author information
      */
@@ -138,7 +228,61 @@ public class BookDAO {
     }
 
     /**
-     * Update book information
+     * Books ordered by title, starting after the given key (null for the first page)
+     */
+    public Page<Book> getBooksPage(Page.Key after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        List<Book> books = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            if (after == null) {
+                pstmt = conn.prepareStatement(SELECT_BOOKS_FIRST_PAGE);
+                pstmt.setInt(1, limit + 1);
+            } else {
+                pstmt = conn.prepareStatement(SELECT_BOOKS_PAGE_AFTER);
+                pstmt.setString(1, after.getSortValue());
+                pstmt.setString(2, after.getSortValue());
+                pstmt.setInt(3, after.getId());
+                pstmt.setInt(4, limit + 1);
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                books.add(extractBookFromResultSet(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving books page: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+
+        // One extra row was fetched only to tell whether another page exists
+        if (books.size() <= limit) {
+            return new Page<>(books, null);
+        }
+        books.remove(limit);
+        Book last = books.get(limit - 1);
+        return new Page<>(books, new Page.Key(last.getTitle(), last.getBookId()));
+    }
+
+    /**
+     * All books ordered by title, read lazily in fetch-size batches.
+     * The stream holds a connection until it is closed, so use try-with-resources.
+     */
+    public Stream<Book> streamAllBooks() {
+        return ResultSetStream.query(STREAM_ALL_BOOKS, "books", this::extractBookFromResultSet);
+    }
+
+    /**
+     * Update book information. Availability is left alone: it only changes through
+     * updateCopies and the reserve/release of issue and return
      */
     public boolean updateBook(Book book) {
         Connection conn = null;
@@ -163,9 +307,8 @@ public class BookDAO {
                 pstmt.setNull(4, Types.DECIMAL);
             }
 
-            pstmt.setInt(5, book.getCopiesAvailable());
-            pstmt.setInt(6, book.getAuthorId());
-            pstmt.setInt(7, book.getBookId());
+            pstmt.setInt(5, book.getAuthorId());
+            pstmt.setInt(6, book.getBookId());
 
             int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
@@ -192,6 +335,9 @@ public class BookDAO {
             pstmt.setInt(1, bookId);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                UnitOfWork.afterCommit(() -> InventoryStore.getInstance().bookDeleted(bookId));
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -207,39 +353,33 @@ public class BookDAO {
     }
 
     /**
-     * Update book copies (for lending/returning)
+     * Add or remove physical copies of a book in a single conditional UPDATE
+     * (in the inventory file, if the book is tracked there)
      */
     public boolean updateCopies(int bookId, int changeInCopies) {
         Connection conn = null;
         PreparedStatement pstmt = null;
 
-        try {
-            conn = DatabaseConnection.getConnection();
-
-            // First, get current values to validate the change
-            Book currentBook = getBookById(bookId);
-            if (currentBook == null) {
-                System.out.println("Book not found");
-                return false;
-            }
-
-            int newAvailable = currentBook.getCopiesAvailable() + changeInCopies;
-            if (newAvailable < 0) {
-                System.out.println("Cannot reduce copies below 0");
-                return false;
+        InventoryStore.Change change = InventoryStore.getInstance().adjustCopies(bookId, changeInCopies);
+        if (change != InventoryStore.Change.UNTRACKED) {
+            if (change == InventoryStore.Change.REFUSED) {
+                System.out.println("Book not found or cannot reduce copies below 0");
             }
+            return change == InventoryStore.Change.APPLIED;
+        }
 
-            // Update both copies_available and total_copies
-            String sql = "UPDATE books SET copies_available = copies_available + ?, " +
-                    "total_copies = GREATEST(total_copies, copies_available + ?) " +
-                    "WHERE book_id = ?";
-
-            pstmt = conn.prepareStatement(sql);
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(UPDATE_COPIES);
             pstmt.setInt(1, changeInCopies);
             pstmt.setInt(2, changeInCopies);
             pstmt.setInt(3, bookId);
+            pstmt.setInt(4, changeInCopies);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected == 0) {
+                System.out.println("Book not found or cannot reduce copies below 0");
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -292,6 +432,8 @@ public class BookDAO {
                 rs.getInt("author_id")
         );
         book.setAuthorName(rs.getString("author_name"));
+        // The table may trail the inventory file by one write-back interval
+        InventoryStore.getInstance().applyTo(book);
         return book;
     }
 
@@ -2,19 +2,43 @@ package Day_27To31.library_management_system.src.main.java.com.library.dao;
 
 import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
 import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LruCache;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-
-public class BookLoanDAO {
-    private static final BigDecimal DAILY_FINE_RATE = new BigDecimal("1.00");
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class BookLoanDAO implements LoanRepository {
+    // Used when the library_settings row cannot be read (in-memory storage, older schemas)
+    private static final BigDecimal DEFAULT_DAILY_FINE_RATE = new BigDecimal("1.00");
+    // The one copy of the rate: the library_statistics view reads the same row
+    private static final String SELECT_DAILY_FINE_RATE =
+            "SELECT numeric_value FROM library_settings WHERE setting_key = 'daily_fine_rate'";
+    private static final String DAILY_FINE_RATE_KEY = "daily_fine_rate";
+    // Re-read after the TTL, so a changed settings row takes effect without a restart
+    private static final LruCache<String, BigDecimal> DAILY_FINE_RATE_CACHE = new LruCache<>("fineRate", 1,
+            LibraryConfig.getLong("library.fines.rateTtlMs", 60_000));
+
+    // Derived fines: an open loan's fine is a function of due_date and today, so it is computed
+    // when the loan is read and written only on return. Off: maintenance materializes fine_amount.
+    private static final boolean DERIVED_FINES = LibraryConfig.getBoolean("library.fines.derived", true);
+
+    // Loan limit used when the caller does not pass the member's own limit
+    static final int DEFAULT_MAX_LOANS = 3;
 
     private static final String INSERT_LOAN =
             "INSERT INTO book_loans (book_id, member_id, loan_date, due_date, fine_amount, status) VALUES (?,?,?,?,?,?)";
 
+    private static final String INSERT_HISTORICAL_LOAN =
+            "INSERT INTO book_loans (book_id, member_id, loan_date, due_date, return_date, fine_amount, status) VALUES (?,?,?,?,?,?,?)";
+
     // FIXED: Corrected the JOIN syntax in SELECT_LOAN_BY_ID
     private static final String SELECT_LOAN_BY_ID =
             "SELECT bl.*, b.title as book_title, m.name as member_name, m.membership_type as member_type " +
@@ -23,6 +47,8 @@ public class BookLoanDAO {
                     "JOIN members m ON bl.member_id = m.member_id " +
                     "WHERE bl.loan_id = ?";
 
+    private static final String SELECT_LOAN_BY_ID_FOR_UPDATE = SELECT_LOAN_BY_ID + " FOR UPDATE";
+
     // FIXED: Corrected the status filter for active loans
     private static final String SELECT_ACTIVE_LOANS =
             "SELECT bl.*, b.title as book_title, m.name as member_name, m.membership_type as member_type " +
@@ -53,11 +79,12 @@ public class BookLoanDAO {
     private static final String UPDATE_LOAN_STATUS =
             "UPDATE book_loans SET status = ?, fine_amount = ? WHERE loan_id = ?";
 
-    private static final String CHECK_BOOK_AVAILABILITY =
-            "SELECT copies_available FROM books WHERE book_id = ?";
+    // Check and decrement in one statement - 0 rows updated means no copy was left
+    private static final String RESERVE_BOOK_COPY =
+            "UPDATE books SET copies_available = copies_available - 1 WHERE book_id = ? AND copies_available > 0";
 
-    private static final String UPDATE_BOOK_COPIES =
-            "UPDATE books SET copies_available = copies_available + ? WHERE book_id = ?";
+    private static final String RELEASE_BOOK_COPY =
+            "UPDATE books SET copies_available = copies_available + 1 WHERE book_id = ?";
 
     // NEW: Query to update all overdue loans with current fines
     private static final String UPDATE_ALL_OVERDUE_FINES =
@@ -74,27 +101,56 @@ public class BookLoanDAO {
                     "END " +
                     "WHERE status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL";
 
+    // Open loans past due and their fines as of the given date, summed by the database over idx_loan_due_date
+    private static final String SELECT_OVERDUE_TOTALS =
+            "SELECT COUNT(*) AS overdue_loans, COALESCE(SUM(DATEDIFF(?, due_date)), 0) * ? AS total_fines " +
+                    "FROM book_loans WHERE due_date < ? AND status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL";
+
+    // Opens the read view at once rather than at the first read
+    private static final String START_CONSISTENT_SNAPSHOT = "START TRANSACTION WITH CONSISTENT SNAPSHOT";
+
+    private static final String COUNT_ACTIVE_LOANS_BY_MEMBER =
+            "SELECT member_id, COUNT(*) AS active_loans FROM book_loans " +
+                    "WHERE status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL GROUP BY member_id";
+
     public boolean issueBook(int bookId, int memberId, int loanDurationDays) {
-        Connection conn = null;
+        return issueBook(bookId, memberId, loanDurationDays, DEFAULT_MAX_LOANS);
+    }
+
+    public boolean issueBook(int bookId, int memberId, int loanDurationDays, int maxLoans) {
         PreparedStatement pstmt = null;
+        PreparedStatement bookStmt = null;
 
-        try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+        // Joins the caller's transaction if one is open, so all checks see the same connection
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
 
-            if (!isBookAvailable(conn, bookId)) {
-                System.out.println("Book is not available for lending");
-                conn.rollback();
+            ActiveLoanCounter loanCounter = ActiveLoanCounter.getInstance();
+            int currentLoans = loanCounter.getActiveLoanCount(memberId);
+
+            if (currentLoans >= maxLoans) {
+                System.out.println("Member has reached loan limit (already has " + currentLoans + " loans)");
                 return false;
             }
 
-            MemberDAO memberDAO = new MemberDAO();
-            int currentLoans = memberDAO.getActiveLoanCount(memberId);
-
-            if (currentLoans >= 3) {
-                System.out.println("Member has reached loan limit (already has " + currentLoans + " loans)");
-                conn.rollback();
+            // Reserve a copy first: a CAS in the inventory file if the book is tracked there,
+            // otherwise the row lock is held until commit so concurrent checkouts queue here
+            InventoryStore inventory = InventoryStore.getInstance();
+            InventoryStore.Change reserved = inventory.reserve(bookId);
+            if (reserved == InventoryStore.Change.APPLIED) {
+                UnitOfWork.afterRollback(() -> inventory.release(bookId));
+            } else if (reserved == InventoryStore.Change.REFUSED) {
+                System.out.println("Book is not available for lending");
                 return false;
+            } else {
+                bookStmt = conn.prepareStatement(RESERVE_BOOK_COPY);
+                bookStmt.setInt(1, bookId);
+
+                if (bookStmt.executeUpdate() == 0) {
+                    System.out.println("Book is not available for lending");
+                    return false;
+                }
+                EntityCache.invalidateBook(bookId);
             }
 
             BookLoan loan = new BookLoan(bookId, memberId, LocalDate.now().plusDays(loanDurationDays));
@@ -115,50 +171,35 @@ public class BookLoanDAO {
                     loan.setLoanId(generatedKeys.getInt(1));
                 }
 
-                PreparedStatement bookStmt = conn.prepareStatement(UPDATE_BOOK_COPIES);
-                bookStmt.setInt(1, -1);
-                bookStmt.setInt(2, bookId);
-
-                int bookResult = bookStmt.executeUpdate();
-
-                if (bookResult > 0) {
-                    conn.commit();
-                    System.out.println("Book issued successfully. Loan ID: " + loan.getLoanId());
-                    return true;
-                } else {
-                    conn.rollback();
-                    System.out.println("Failed to update book inventory");
-                }
-                bookStmt.close();
+                loanCounter.loanIssued(memberId);
+                LoanJournal.getInstance().loanIssued(loan.getLoanId(), bookId, memberId, loan.getDueDate());
+                uow.commit();
+                System.out.println("Book issued successfully. Loan ID: " + loan.getLoanId());
+                return true;
             } else {
-                conn.rollback();
                 System.out.println("Failed to create loan record");
             }
         } catch (SQLException e) {
-            try {
-                if (conn != null) conn.rollback();
-            } catch (SQLException rollbackEx) {
-                System.err.println("Error during rollback: " + rollbackEx.getMessage());
-            }
             System.err.println("Error issuing book: " + e.getMessage());
+            UnitOfWork.recordFailure(e);
         } finally {
-            closeResources(conn, pstmt, null);
+            closeResources(null, bookStmt, null);
+            closeResources(null, pstmt, null);
         }
         return false;
     }
 
     public boolean returnBook(int loanId) {
-        Connection conn = null;
         PreparedStatement pstmt = null;
+        PreparedStatement bookStmt = null;
 
-        try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
 
-            BookLoan loan = getLoanById(loanId);
+            // Lock the loan row so a concurrent return of the same loan waits for us
+            BookLoan loan = getLoanById(conn, loanId, true);
             if (loan == null || loan.getStatus() == BookLoan.LoanStatus.RETURNED) {
                 System.out.println("Invalid loan or book already returned");
-                conn.rollback();
                 return false;
             }
 
@@ -172,14 +213,24 @@ public class BookLoanDAO {
 
             int loanResult = pstmt.executeUpdate();
             if (loanResult > 0) {
-                PreparedStatement bookStmt = conn.prepareStatement(UPDATE_BOOK_COPIES);
-                bookStmt.setInt(1, 1);
-                bookStmt.setInt(2, loan.getBookId());
-
-                int bookResult = bookStmt.executeUpdate();
+                int bookResult;
+                InventoryStore inventory = InventoryStore.getInstance();
+                if (inventory.isTracked(loan.getBookId())) {
+                    // The copy goes back on the shelf once the return is committed
+                    UnitOfWork.afterCommit(() -> inventory.release(loan.getBookId()));
+                    bookResult = 1;
+                } else {
+                    bookStmt = conn.prepareStatement(RELEASE_BOOK_COPY);
+                    bookStmt.setInt(1, loan.getBookId());
+                    bookResult = bookStmt.executeUpdate();
+                    EntityCache.invalidateBook(loan.getBookId());
+                }
 
                 if (bookResult > 0) {
-                    conn.commit();
+                    ActiveLoanCounter.getInstance().loanReturned(loan.getMemberId());
+                    LoanJournal.getInstance().loanReturned(loanId, loan.getBookId(), loan.getMemberId(),
+                            LocalDate.now(), fine);
+                    uow.commit();
                     if (fine.compareTo(BigDecimal.ZERO) > 0) {
                         System.out.println("Book returned successfully. Fine amount: $" + fine);
                     } else {
@@ -187,35 +238,41 @@ public class BookLoanDAO {
                     }
                     return true;
                 } else {
-                    conn.rollback();
                     System.out.println("Failed to update book inventory");
                 }
-                bookStmt.close();
             } else {
-                conn.rollback();
                 System.out.println("Failed to update the loan record.");
             }
         } catch (SQLException e) {
-            try {
-                if (conn != null) conn.rollback();
-            } catch (SQLException rollbackEx) {
-                System.err.println("Error during rollback: " + rollbackEx.getMessage());
-            }
             System.err.println("Error returning book: " + e.getMessage());
+            UnitOfWork.recordFailure(e);
         } finally {
-            closeResources(conn, pstmt, null);
+            closeResources(null, bookStmt, null);
+            closeResources(null, pstmt, null);
         }
         return false;
     }
 
     public BookLoan getLoanById(int loanId) {
         Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            return getLoanById(conn, loanId, false);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving loan: " + e.getMessage());
+        } finally {
+            closeResources(conn, null, null);
+        }
+        return null;
+    }
+
+    private BookLoan getLoanById(Connection conn, int loanId, boolean forUpdate) throws SQLException {
         PreparedStatement pstmt = null;
         ResultSet rs = null;
 
         try {
-            conn = DatabaseConnection.getConnection();
-            pstmt = conn.prepareStatement(SELECT_LOAN_BY_ID);
+            pstmt = conn.prepareStatement(forUpdate ? SELECT_LOAN_BY_ID_FOR_UPDATE : SELECT_LOAN_BY_ID);
             pstmt.setInt(1, loanId);
 
             rs = pstmt.executeQuery();
@@ -223,23 +280,21 @@ public class BookLoanDAO {
             if (rs.next()) {
                 return extractLoanFromResultSet(rs);
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving loan: " + e.getMessage());
         } finally {
-            closeResources(conn, pstmt, rs);
+            closeResources(null, pstmt, rs);
         }
         return null;
     }
 
+    /**
+     * Open loans. Read-only: overdue status and fines are computed as of today while mapping
+     * (OverdueMaintenanceJob materializes them in the background).
+     */
     public List<BookLoan> getActiveLoans() {
-        // First update overdue loans and fines
-        updateOverdueFines();
         return getLoansWithQuery(SELECT_ACTIVE_LOANS);
     }
 
     public List<BookLoan> getOverdueLoans() {
-        // First update overdue loans and fines
-        updateOverdueFines();
         return getLoansWithQuery(SELECT_OVERDUE_LOANS);
     }
 
@@ -266,8 +321,99 @@ public class BookLoanDAO {
         return loans;
     }
 
+    /**
+     * Bulk-load historical loans (including returned ones) as they are, in batched chunks.
+     * Inventory is not touched; run BookDAO.reconcileCopiesAvailable() afterwards.
+     */
+    public BulkResult createLoans(List<BookLoan> loans) {
+        return createLoans(loans, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkResult createLoans(List<BookLoan> loans, int chunkSize) {
+        BulkResult result = new BulkInsert<BookLoan>("loans", INSERT_HISTORICAL_LOAN, null, loan -> null,
+                (pstmt, loan) -> {
+                    pstmt.setInt(1, loan.getBookId());
+                    pstmt.setInt(2, loan.getMemberId());
+                    pstmt.setDate(3, Date.valueOf(loan.getLoanDate()));
+                    pstmt.setDate(4, Date.valueOf(loan.getDueDate()));
+                    pstmt.setDate(5, loan.getReturnDate() != null ? Date.valueOf(loan.getReturnDate()) : null);
+                    pstmt.setBigDecimal(6, loan.getFineAmount());
+                    pstmt.setString(7, loan.getStatus().toString());
+                }, BookLoan::setLoanId)
+                .run(loans, chunkSize);
+        LoanJournal.getInstance().loansLoaded(loans);
+        return result;
+    }
+
+    /**
+     * Open loan count per member, read in one pass (null if the query fails)
+     */
+    public Map<Integer, Integer> getActiveLoanCountsByMember(Consumer<Runnable> atSnapshot) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        int isolation = -1;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            // A repeatable-read transaction whose read view is opened inside atSnapshot, so the
+            // count covers exactly the loans committed before that point
+            isolation = conn.getTransactionIsolation();
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+
+            Connection snapshotConn = conn;
+            SQLException[] failure = new SQLException[1];
+            atSnapshot.accept(() -> {
+                try (PreparedStatement start = snapshotConn.prepareStatement(START_CONSISTENT_SNAPSHOT)) {
+                    start.execute();
+                } catch (SQLException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+
+            pstmt = conn.prepareStatement(COUNT_ACTIVE_LOANS_BY_MEMBER);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                counts.put(rs.getInt("member_id"), rs.getInt("active_loans"));
+            }
+            conn.commit();
+            return counts;
+        } catch (SQLException e) {
+            System.err.println("Error counting active loans: " + e.getMessage());
+        } finally {
+            closeResources(null, pstmt, rs);
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                    if (isolation >= 0) conn.setTransactionIsolation(isolation);
+                } catch (SQLException e) {
+                    System.err.println("Error ending count snapshot: " + e.getMessage());
+                }
+            }
+            closeResources(conn, null, null);
+        }
+        return null;
+    }
+
+    /**
+     * True when fines of open loans are computed at read time and only persisted on return
+     */
+    public static boolean isDerivedFines() {
+        return DERIVED_FINES;
+    }
+
     // NEW: Method to update overdue fines for all loans
     public int updateOverdueFines() {
+        if (DERIVED_FINES) {
+            return 0; // nothing stored to refresh
+        }
         Connection conn = null;
         PreparedStatement pstmt = null;
         int updateCount = 0;
@@ -275,7 +421,7 @@ public class BookLoanDAO {
         try {
             conn = DatabaseConnection.getConnection();
             pstmt = conn.prepareStatement(UPDATE_ALL_OVERDUE_FINES);
-            pstmt.setBigDecimal(1, DAILY_FINE_RATE);
+            pstmt.setBigDecimal(1, getDailyFineRate());
 
             updateCount = pstmt.executeUpdate();
 
@@ -290,32 +436,86 @@ public class BookLoanDAO {
         return updateCount;
     }
 
+    /**
+     * Mark loans that became overdue since the last run, in committed chunks (see OverdueSweep).
+     * With derived fines there is nothing to write: status and fine are both worked out on read.
+     * @return loans marked, or -1 on failure
+     */
+    public int markOverdueLoans(LocalDate today) {
+        if (DERIVED_FINES) {
+            return 0;
+        }
+        return new OverdueSweep(getDailyFineRate(), OverdueSweep.DEFAULT_CHUNK_SIZE).run(today);
+    }
+
+    /**
+     * Count and total current fines of open overdue loans, or null if the query fails
+     */
+    public OverdueTotals getOverdueTotals() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            Date today = Date.valueOf(LocalDate.now());
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_OVERDUE_TOTALS);
+            pstmt.setDate(1, today);
+            pstmt.setBigDecimal(2, getDailyFineRate());
+            pstmt.setDate(3, today);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return new OverdueTotals(rs.getInt("overdue_loans"), rs.getBigDecimal("total_fines"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error totalling overdue fines: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+        return null;
+    }
+
     public int updateOverdueLoans() {
         // This method now just calls updateOverdueFines which handles both status and fines
         return updateOverdueFines();
     }
 
+    /**
+     * Fine per day overdue from the library_settings row 'daily_fine_rate', cached for
+     * library.fines.rateTtlMs
+     */
+    public static BigDecimal getDailyFineRate() {
+        return DAILY_FINE_RATE_CACHE.get(DAILY_FINE_RATE_KEY, key -> loadDailyFineRate());
+    }
+
+    private static BigDecimal loadDailyFineRate() {
+        if (Repositories.isInMemory()) {
+            return DEFAULT_DAILY_FINE_RATE;
+        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_DAILY_FINE_RATE);
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next() && rs.getBigDecimal(1) != null) {
+                return rs.getBigDecimal(1);
+            }
+            System.err.println("No daily_fine_rate in library_settings - using " + DEFAULT_DAILY_FINE_RATE);
+        } catch (SQLException e) {
+            System.err.println("Error reading daily fine rate (using " + DEFAULT_DAILY_FINE_RATE + "): " + e.getMessage());
+        }
+        return DEFAULT_DAILY_FINE_RATE;
+    }
+
     // NEW: Helper method to calculate current fine for a loan
-    private BigDecimal calculateCurrentFine(BookLoan loan) {
+    static BigDecimal calculateCurrentFine(BookLoan loan) {
         if (loan.getDueDate().isBefore(LocalDate.now())) {
             long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(
                     loan.getDueDate(), LocalDate.now());
-            return DAILY_FINE_RATE.multiply(BigDecimal.valueOf(daysOverdue));
+            return getDailyFineRate().multiply(BigDecimal.valueOf(daysOverdue));
         }
         return BigDecimal.ZERO;
     }
 
-    private boolean isBookAvailable(Connection conn, int bookId) throws SQLException {
-        PreparedStatement pstmt = conn.prepareStatement(CHECK_BOOK_AVAILABILITY);
-        pstmt.setInt(1, bookId);
-        ResultSet rs = pstmt.executeQuery();
-
-        if (rs.next()) {
-            return rs.getInt(1) > 0;
-        }
-        return false;
-    }
-
     private List<BookLoan> getLoansWithQuery(String query) {
         List<BookLoan> loans = new ArrayList<>();
         Connection conn = null;
@@ -358,9 +558,22 @@ public class BookLoanDAO {
         loan.setMemberName(rs.getString("member_name"));
         loan.setMemberType(rs.getString("member_type"));
 
+        applyOverdueAsOfToday(loan);
         return loan;
     }
 
+    /**
+     * Open loans past due are reported as of today: with derived fines nothing is stored for them
+     * until return, otherwise the maintenance job may not have reached them yet
+     */
+    static void applyOverdueAsOfToday(BookLoan loan) {
+        if (loan.getReturnDate() == null && loan.getStatus() != BookLoan.LoanStatus.RETURNED
+                && loan.getDueDate().isBefore(LocalDate.now())) {
+            loan.setStatus(BookLoan.LoanStatus.OVERDUE);
+            loan.setFineAmount(calculateCurrentFine(loan));
+        }
+    }
+
     private void closeResources(Connection conn, PreparedStatement pstmt, ResultSet rs) {
         try {
             if (rs != null) rs.close();
@@ -370,4 +583,4 @@ public class BookLoanDAO {
             System.err.println("Error closing resources: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Book storage. Books read back carry their author's name.
+ */
+public interface BookRepository {
+
+    /**
+     * Insert a book and set its generated id; false if the ISBN is taken or the author does not exist
+     */
+    boolean createBook(Book book);
+
+    /**
+     * Insert many books, skipping those whose ISBN already exists (or repeats within the list)
+     */
+    BulkResult createBooks(List<Book> books);
+
+    BulkResult createBooks(List<Book> books, int chunkSize);
+
+    /**
+     * Set copies available = total copies - open loans for every book
+     * @return number of books whose availability changed, or -1 on error
+     */
+    int reconcileCopiesAvailable();
+
+    Book getBookById(int bookId);
+
+    /**
+     * All books ordered by title
+     */
+    List<Book> getAllBooks();
+
+    /**
+     * Books ordered by title, starting after the given key (null for the first page)
+     */
+    Page<Book> getBooksPage(Page.Key after, int limit);
+
+    /**
+     * All books ordered by title; close the stream when done
+     */
+    Stream<Book> streamAllBooks();
+
+    boolean updateBook(Book book);
+
+    /**
+     * Delete a book; refused while loans still reference it
+     */
+    boolean deleteBook(int bookId);
+
+    /**
+     * Add or remove physical copies; fails rather than take availability below zero
+     */
+    boolean updateCopies(int bookId, int changeInCopies);
+}
@@ -0,0 +1,156 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Chunked multi-row insert shared by the DAOs' bulk APIs.
+ *
+ * Each chunk runs in its own transaction: one IN (...) query finds unique keys that already
+ * exist, the remaining rows go through addBatch/executeBatch (rewritten by the driver into
+ * multi-row INSERTs), generated ids are copied back, and the chunk commits. A chunk that
+ * fails is rolled back and counted as failed; later chunks still run.
+ */
+final class BulkInsert<T> {
+    static final int DEFAULT_CHUNK_SIZE = LibraryConfig.getInt("library.bulk.chunkSize", 1000);
+
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    private final String description;
+    private final String insertSql;
+    private final String existingKeysPrefix;
+    private final Function<T, String> uniqueKey;
+    private final Binder<T> binder;
+    private final ObjIntConsumer<T> idSetter;
+
+    /**
+     * @param existingKeysPrefix query returning the unique column, ending in "IN " (the placeholder list is appended),
+     *                           or null for tables without a natural key
+     * @param uniqueKey the row's value for that column; rows with a null key are not de-duplicated
+     */
+    BulkInsert(String description, String insertSql, String existingKeysPrefix,
+               Function<T, String> uniqueKey, Binder<T> binder, ObjIntConsumer<T> idSetter) {
+        this.description = description;
+        this.insertSql = insertSql;
+        this.existingKeysPrefix = existingKeysPrefix;
+        this.uniqueKey = uniqueKey;
+        this.binder = binder;
+        this.idSetter = idSetter;
+    }
+
+    BulkResult run(List<T> rows, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        BulkResult result = new BulkResult();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<T> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            long start = System.nanoTime();
+            try {
+                insertChunk(chunk, result);
+            } catch (SQLException e) {
+                System.err.println("Error bulk inserting " + description + " (rows " + from + "-"
+                        + (from + chunk.size() - 1) + "): " + e.getMessage());
+                result.addFailed(chunk.size());
+            }
+            result.addChunk();
+            result.addElapsedNanos(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private void insertChunk(List<T> chunk, BulkResult result) throws SQLException {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
+
+            List<T> toInsert = withoutDuplicates(conn, chunk);
+            int duplicates = chunk.size() - toInsert.size();
+
+            if (!toInsert.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (T row : toInsert) {
+                        binder.bind(pstmt, row);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        int i = 0;
+                        while (keys.next() && i < toInsert.size()) {
+                            idSetter.accept(toInsert.get(i++), keys.getInt(1));
+                        }
+                    }
+                }
+            }
+
+            uow.commit();
+            result.addInserted(toInsert.size());
+            result.addDuplicates(duplicates);
+        }
+    }
+
+    /**
+     * Drop rows whose unique key is already in the table or repeats an earlier row of the chunk
+     */
+    private List<T> withoutDuplicates(Connection conn, List<T> chunk) throws SQLException {
+        if (existingKeysPrefix == null) {
+            return chunk;
+        }
+
+        List<String> keys = new ArrayList<>(chunk.size());
+        for (T row : chunk) {
+            String key = uniqueKey.apply(row);
+            if (key != null) keys.add(key);
+        }
+
+        Set<String> seen = new HashSet<>();
+        if (!keys.isEmpty()) {
+            StringBuilder sql = new StringBuilder(existingKeysPrefix).append('(');
+            for (int i = 0; i < keys.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < keys.size(); i++) {
+                    pstmt.setString(i + 1, keys.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        seen.add(normalize(rs.getString(1)));
+                    }
+                }
+            }
+        }
+
+        List<T> unique = new ArrayList<>(chunk.size());
+        for (T row : chunk) {
+            String key = uniqueKey.apply(row);
+            if (key == null || seen.add(normalize(key))) {
+                unique.add(row);
+            }
+        }
+        return unique;
+    }
+
+    // Unique columns use the table's case-insensitive collation
+    private static String normalize(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+}
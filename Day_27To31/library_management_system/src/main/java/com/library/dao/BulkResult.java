@@ -0,0 +1,46 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+/**
+ * Outcome of a bulk insert. Rows that were inserted also have their generated id set.
+ */
+public class BulkResult {
+    private int inserted;
+    private int duplicates;
+    private int failed;
+    private int chunks;
+    private long elapsedNanos;
+
+    public void addInserted(int count) { inserted += count; }
+    public void addDuplicates(int count) { duplicates += count; }
+    public void addFailed(int count) { failed += count; }
+    public void addChunk() { chunks++; }
+    public void addElapsedNanos(long nanos) { elapsedNanos += nanos; }
+
+    /**
+     * Fold another result into this one (used when a loader calls the DAO chunk by chunk)
+     */
+    public void add(BulkResult other) {
+        inserted += other.inserted;
+        duplicates += other.duplicates;
+        failed += other.failed;
+        chunks += other.chunks;
+        elapsedNanos += other.elapsedNanos;
+    }
+
+    // Getters
+    public int getInserted() { return inserted; }
+    public int getDuplicates() { return duplicates; }
+    public int getFailed() { return failed; }
+    public int getChunks() { return chunks; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : inserted * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Inserted: %d, Duplicates skipped: %d, Failed: %d, Chunks: %d, %.0f rows/s",
+                inserted, duplicates, failed, chunks, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,38 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+
+/**
+ * AuthorDAO with a read-through cache for lookups by id
+ */
+public class CachingAuthorDAO extends AuthorDAO {
+
+    @Override
+    public Author getAuthorById(int authorId) {
+        return copyOf(EntityCache.AUTHORS.get(authorId, super::getAuthorById));
+    }
+
+    @Override
+    public boolean updateAuthor(Author author) {
+        try {
+            return super.updateAuthor(author);
+        } finally {
+            EntityCache.invalidateAuthor(author.getAuthorId());
+        }
+    }
+
+    @Override
+    public boolean deleteAuthor(int authorId) {
+        try {
+            return super.deleteAuthor(authorId);
+        } finally {
+            EntityCache.invalidateAuthor(authorId);
+        }
+    }
+
+    static Author copyOf(Author author) {
+        if (author == null) return null;
+        return new Author(author.getAuthorId(), author.getName(), author.getEmail(),
+                author.getBirthYear(), author.getBiography());
+    }
+}
@@ -0,0 +1,62 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+
+/**
+ * BookDAO with a read-through cache for lookups by id.
+ * Callers get their own copy, so editing a returned Book never changes the cached one.
+ */
+public class CachingBookDAO extends BookDAO {
+
+    @Override
+    public Book getBookById(int bookId) {
+        Book book = copyOf(EntityCache.BOOKS.get(bookId, super::getBookById));
+        // Checkouts against the inventory file do not invalidate the cache
+        InventoryStore.getInstance().applyTo(book);
+        return book;
+    }
+
+    @Override
+    public boolean updateBook(Book book) {
+        try {
+            return super.updateBook(book);
+        } finally {
+            EntityCache.invalidateBook(book.getBookId());
+        }
+    }
+
+    @Override
+    public boolean deleteBook(int bookId) {
+        try {
+            return super.deleteBook(bookId);
+        } finally {
+            EntityCache.invalidateBook(bookId);
+        }
+    }
+
+    @Override
+    public boolean updateCopies(int bookId, int changeInCopies) {
+        try {
+            return super.updateCopies(bookId, changeInCopies);
+        } finally {
+            EntityCache.invalidateBook(bookId);
+        }
+    }
+
+    @Override
+    public int reconcileCopiesAvailable() {
+        try {
+            return super.reconcileCopiesAvailable();
+        } finally {
+            EntityCache.BOOKS.invalidateAll();
+        }
+    }
+
+    static Book copyOf(Book book) {
+        if (book == null) return null;
+        Book copy = new Book(book.getBookId(), book.getTitle(), book.getIsbn(), book.getPublicationYear(),
+                book.getPrice(), book.getCopiesAvailable(), book.getAuthorId());
+        copy.setAuthorName(book.getAuthorName());
+        return copy;
+    }
+}
@@ -0,0 +1,38 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+
+/**
+ * MemberDAO with a read-through cache for lookups by id
+ */
+public class CachingMemberDAO extends MemberDAO {
+
+    @Override
+    public Member getMemberById(int memberId) {
+        return copyOf(EntityCache.MEMBERS.get(memberId, super::getMemberById));
+    }
+
+    @Override
+    public boolean updateMember(Member member) {
+        try {
+            return super.updateMember(member);
+        } finally {
+            EntityCache.invalidateMember(member.getMemberId());
+        }
+    }
+
+    @Override
+    public boolean deleteMember(int memberId) {
+        try {
+            return super.deleteMember(memberId);
+        } finally {
+            EntityCache.invalidateMember(memberId);
+        }
+    }
+
+    static Member copyOf(Member member) {
+        if (member == null) return null;
+        return new Member(member.getMemberId(), member.getName(), member.getEmail(), member.getPhone(),
+                member.getJoinDate(), member.getMembershipType());
+    }
+}
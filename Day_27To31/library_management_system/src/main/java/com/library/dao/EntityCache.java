@@ -0,0 +1,75 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LruCache;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shared by-id caches for the caching DAOs, plus the invalidation hooks every writer calls
+ */
+public final class EntityCache {
+    private static final int MAX_ENTRIES = LibraryConfig.getInt("library.cache.maxEntries", 10_000);
+    private static final long TTL_MILLIS = LibraryConfig.getLong("library.cache.ttlMs", 60_000);
+
+    static final LruCache<Integer, Book> BOOKS = new LruCache<>("books", MAX_ENTRIES, TTL_MILLIS);
+    static final LruCache<Integer, Member> MEMBERS = new LruCache<>("members", MAX_ENTRIES, TTL_MILLIS);
+    static final LruCache<Integer, Author> AUTHORS = new LruCache<>("authors", MAX_ENTRIES, TTL_MILLIS);
+
+    private EntityCache() {}
+
+    /**
+     * Drop a book now and again when the surrounding transaction ends, so a reader that
+     * reloaded the row in between cannot leave a stale copy behind: the old row if the
+     * transaction commits, or its own uncommitted change if it rolls back
+     */
+    public static void invalidateBook(int bookId) {
+        BOOKS.invalidate(bookId);
+        afterTransaction(() -> BOOKS.invalidate(bookId));
+    }
+
+    public static void invalidateMember(int memberId) {
+        MEMBERS.invalidate(memberId);
+        afterTransaction(() -> MEMBERS.invalidate(memberId));
+    }
+
+    /**
+     * Books carry the author name, so an author change drops every cached book as well
+     */
+    public static void invalidateAuthor(int authorId) {
+        AUTHORS.invalidate(authorId);
+        BOOKS.invalidateAll();
+        afterTransaction(() -> {
+            AUTHORS.invalidate(authorId);
+            BOOKS.invalidateAll();
+        });
+    }
+
+    private static void afterTransaction(Runnable invalidation) {
+        if (UnitOfWork.isActive()) {
+            UnitOfWork.afterCommit(invalidation);
+            UnitOfWork.afterRollback(invalidation);
+        }
+    }
+
+    public static void clear() {
+        BOOKS.invalidateAll();
+        MEMBERS.invalidateAll();
+        AUTHORS.invalidateAll();
+    }
+
+    public static List<LruCache.CacheStats> getStats() {
+        return Arrays.asList(BOOKS.getStats(), MEMBERS.getStats(), AUTHORS.getStats());
+    }
+
+    public static void resetStats() {
+        BOOKS.resetStats();
+        MEMBERS.resetStats();
+        AUTHORS.resetStats();
+    }
+}
@@ -0,0 +1,144 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * AuthorRepository over InMemoryStore. Email is unique; an author with books cannot be deleted.
+ */
+final class InMemoryAuthorRepository implements AuthorRepository {
+    private final InMemoryStore store;
+
+    InMemoryAuthorRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean createAuthor(Author author) {
+        synchronized (store.writeLock) {
+            if (author.getEmail() != null && store.authorsByEmail.containsKey(InMemoryStore.uniqueKey(author.getEmail()))) {
+                System.out.println("Author with email " + author.getEmail() + " already exists!");
+                return false;
+            }
+            String violation = check(author);
+            if (violation != null) {
+                System.err.println("Error creating author: " + violation);
+                return false;
+            }
+            insert(author);
+            return true;
+        }
+    }
+
+    @Override
+    public BulkResult createAuthors(List<Author> authors) {
+        return createAuthors(authors, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Override
+    public BulkResult createAuthors(List<Author> authors, int chunkSize) {
+        return store.bulkInsert("authors", authors, chunkSize, Author::getEmail, store.authorsByEmail,
+                this::check, this::insert);
+    }
+
+    // Caller holds the write lock and has checked the row
+    private void insert(Author author) {
+        int authorId = store.authorIds.incrementAndGet();
+        author.setAuthorId(authorId);
+        Author row = CachingAuthorDAO.copyOf(author);
+        store.authors.put(authorId, row);
+        if (row.getEmail() != null) {
+            store.authorsByEmail.put(InMemoryStore.uniqueKey(row.getEmail()), authorId);
+        }
+        store.authorsByName.add(new Page.Key(row.getName(), authorId));
+    }
+
+    private String check(Author author) {
+        return author.getName() == null ? "Column 'name' cannot be null" : null;
+    }
+
+    @Override
+    public Author getAuthorById(int authorId) {
+        return CachingAuthorDAO.copyOf(store.authors.get(authorId));
+    }
+
+    @Override
+    public List<Author> getAllAuthors() {
+        List<Author> authors = new ArrayList<>(store.authors.size());
+        for (Page.Key key : store.authorsByName) {
+            Author author = getAuthorById(key.getId());
+            if (author != null) authors.add(author);
+        }
+        return authors;
+    }
+
+    @Override
+    public Page<Author> getAuthorsPage(Page.Key after, int limit) {
+        return store.page(store.authorsByName, after, limit, this::getAuthorById);
+    }
+
+    @Override
+    public Stream<Author> streamAllAuthors() {
+        return store.authorsByName.stream()
+                .map(key -> getAuthorById(key.getId()))
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public boolean updateAuthor(Author author) {
+        synchronized (store.writeLock) {
+            Author old = store.authors.get(author.getAuthorId());
+            if (old == null) {
+                return false;
+            }
+            String email = InMemoryStore.uniqueKey(author.getEmail());
+            Integer owner = email != null ? store.authorsByEmail.get(email) : null;
+            if (owner != null && owner != author.getAuthorId()) {
+                System.err.println("Error updating author: duplicate email " + author.getEmail());
+                return false;
+            }
+            String violation = check(author);
+            if (violation != null) {
+                System.err.println("Error updating author: " + violation);
+                return false;
+            }
+
+            Author row = CachingAuthorDAO.copyOf(author);
+            if (old.getEmail() != null) {
+                store.authorsByEmail.remove(InMemoryStore.uniqueKey(old.getEmail()));
+            }
+            if (email != null) {
+                store.authorsByEmail.put(email, row.getAuthorId());
+            }
+            store.authorsByName.remove(new Page.Key(old.getName(), old.getAuthorId()));
+            store.authorsByName.add(new Page.Key(row.getName(), row.getAuthorId()));
+            store.authors.put(row.getAuthorId(), row);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteAuthor(int authorId) {
+        synchronized (store.writeLock) {
+            Author old = store.authors.get(authorId);
+            if (old == null) {
+                return false;
+            }
+            if (!InMemoryStore.idsIn(store.booksByAuthor, authorId).isEmpty()) {
+                System.err.println("Error deleting author: foreign key constraint on books.author_id");
+                System.err.println("Cannot delete author - books exist for this author");
+                return false;
+            }
+            store.authors.remove(authorId);
+            if (old.getEmail() != null) {
+                store.authorsByEmail.remove(InMemoryStore.uniqueKey(old.getEmail()));
+            }
+            store.authorsByName.remove(new Page.Key(old.getName(), authorId));
+            return true;
+        }
+    }
+}
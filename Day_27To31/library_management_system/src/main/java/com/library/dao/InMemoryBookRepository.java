@@ -0,0 +1,221 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * BookRepository over InMemoryStore. ISBN is unique, the author must exist, availability stays
+ * between 0 and the total copies, and a book with loans cannot be deleted.
+ */
+final class InMemoryBookRepository implements BookRepository {
+    private final InMemoryStore store;
+
+    InMemoryBookRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean createBook(Book book) {
+        synchronized (store.writeLock) {
+            if (book.getIsbn() != null && store.booksByIsbn.containsKey(InMemoryStore.uniqueKey(book.getIsbn()))) {
+                System.out.println("Book with ISBN " + book.getIsbn() + " already exists!");
+                return false;
+            }
+            String violation = check(book, book.getCopiesAvailable());
+            if (violation != null) {
+                System.err.println("Error creating book: " + violation);
+                if (!store.authors.containsKey(book.getAuthorId())) {
+                    System.err.println("Invalid author ID - author does not exist");
+                }
+                return false;
+            }
+            insert(book);
+            return true;
+        }
+    }
+
+    @Override
+    public BulkResult createBooks(List<Book> books) {
+        return createBooks(books, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Override
+    public BulkResult createBooks(List<Book> books, int chunkSize) {
+        return store.bulkInsert("books", books, chunkSize, Book::getIsbn, store.booksByIsbn,
+                book -> check(book, book.getCopiesAvailable()), this::insert);
+    }
+
+    // Caller holds the write lock and has checked the row; a new book's copies are all on the shelf
+    private void insert(Book book) {
+        int bookId = store.bookIds.incrementAndGet();
+        book.setBookId(bookId);
+        Book row = CachingBookDAO.copyOf(book);
+        row.setAuthorName(null);
+        store.books.put(bookId, new InMemoryStore.BookRow(row, row.getCopiesAvailable()));
+        if (row.getIsbn() != null) {
+            store.booksByIsbn.put(InMemoryStore.uniqueKey(row.getIsbn()), bookId);
+        }
+        InMemoryStore.addTo(store.booksByAuthor, row.getAuthorId(), bookId);
+        store.booksByTitle.add(new Page.Key(row.getTitle(), bookId));
+    }
+
+    private String check(Book book, int totalCopies) {
+        if (book.getTitle() == null) {
+            return "Column 'title' cannot be null";
+        }
+        if (!store.authors.containsKey(book.getAuthorId())) {
+            return "foreign key constraint on books.author_id (no author " + book.getAuthorId() + ")";
+        }
+        if (book.getCopiesAvailable() < 0) {
+            return "Check constraint 'chk_copies' is violated";
+        }
+        if (totalCopies < book.getCopiesAvailable()) {
+            return "Check constraint 'chk_total_copies' is violated";
+        }
+        return null;
+    }
+
+    /**
+     * Set copies available = total copies - open loans for every book
+     */
+    @Override
+    public int reconcileCopiesAvailable() {
+        synchronized (store.writeLock) {
+            int[] bookIds = store.books.keys();
+            int[] available = new int[bookIds.length];
+            for (int i = 0; i < bookIds.length; i++) {
+                InMemoryStore.BookRow row = store.books.get(bookIds[i]);
+                available[i] = row.totalCopies - store.openLoansOfBook(bookIds[i]);
+                if (available[i] < 0) {
+                    // One statement in MySQL: a single violating row fails the whole update
+                    System.err.println("Error reconciling book copies: Check constraint 'chk_copies' is violated");
+                    return -1;
+                }
+            }
+
+            int changed = 0;
+            for (int i = 0; i < bookIds.length; i++) {
+                InMemoryStore.BookRow row = store.books.get(bookIds[i]);
+                if (available[i] != row.book.getCopiesAvailable()) {
+                    store.books.put(bookIds[i], InMemoryStore.withCopies(row, available[i], row.totalCopies));
+                    changed++;
+                }
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public Book getBookById(int bookId) {
+        InMemoryStore.BookRow row = store.books.get(bookId);
+        return row != null ? store.toBook(row) : null;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        List<Book> books = new ArrayList<>(store.books.size());
+        for (Page.Key key : store.booksByTitle) {
+            Book book = getBookById(key.getId());
+            if (book != null) books.add(book);
+        }
+        return books;
+    }
+
+    @Override
+    public Page<Book> getBooksPage(Page.Key after, int limit) {
+        return store.page(store.booksByTitle, after, limit, this::getBookById);
+    }
+
+    @Override
+    public Stream<Book> streamAllBooks() {
+        return store.booksByTitle.stream()
+                .map(key -> getBookById(key.getId()))
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Update book information; like the UPDATE in BookDAO this leaves the copy counts alone
+     */
+    @Override
+    public boolean updateBook(Book book) {
+        synchronized (store.writeLock) {
+            InMemoryStore.BookRow old = store.books.get(book.getBookId());
+            if (old == null) {
+                return false;
+            }
+            String isbn = InMemoryStore.uniqueKey(book.getIsbn());
+            Integer owner = isbn != null ? store.booksByIsbn.get(isbn) : null;
+            if (owner != null && owner != book.getBookId()) {
+                System.err.println("Error updating book: duplicate ISBN " + book.getIsbn());
+                return false;
+            }
+            // Availability is the store's, not the caller's possibly stale copy
+            Book row = CachingBookDAO.copyOf(book);
+            row.setCopiesAvailable(old.book.getCopiesAvailable());
+            row.setAuthorName(null);
+            String violation = check(row, old.totalCopies);
+            if (violation != null) {
+                System.err.println("Error updating book: " + violation);
+                return false;
+            }
+
+            if (old.book.getIsbn() != null) {
+                store.booksByIsbn.remove(InMemoryStore.uniqueKey(old.book.getIsbn()));
+            }
+            if (isbn != null) {
+                store.booksByIsbn.put(isbn, row.getBookId());
+            }
+            if (old.book.getAuthorId() != row.getAuthorId()) {
+                InMemoryStore.removeFrom(store.booksByAuthor, old.book.getAuthorId(), row.getBookId());
+                InMemoryStore.addTo(store.booksByAuthor, row.getAuthorId(), row.getBookId());
+            }
+            store.booksByTitle.remove(new Page.Key(old.book.getTitle(), row.getBookId()));
+            store.booksByTitle.add(new Page.Key(row.getTitle(), row.getBookId()));
+            store.books.put(row.getBookId(), new InMemoryStore.BookRow(row, old.totalCopies));
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteBook(int bookId) {
+        synchronized (store.writeLock) {
+            InMemoryStore.BookRow old = store.books.get(bookId);
+            if (old == null) {
+                return false;
+            }
+            if (!InMemoryStore.idsIn(store.loansByBook, bookId).isEmpty()) {
+                System.err.println("Error deleting book: foreign key constraint on book_loans.book_id");
+                System.err.println("Cannot delete book - active loans exist for this book");
+                return false;
+            }
+            store.books.remove(bookId);
+            if (old.book.getIsbn() != null) {
+                store.booksByIsbn.remove(InMemoryStore.uniqueKey(old.book.getIsbn()));
+            }
+            InMemoryStore.removeFrom(store.booksByAuthor, old.book.getAuthorId(), bookId);
+            store.booksByTitle.remove(new Page.Key(old.book.getTitle(), bookId));
+            return true;
+        }
+    }
+
+    /**
+     * Add or remove physical copies: both counters move, availability may not go below 0
+     */
+    @Override
+    public boolean updateCopies(int bookId, int changeInCopies) {
+        synchronized (store.writeLock) {
+            InMemoryStore.BookRow row = store.books.get(bookId);
+            int available = row != null ? row.book.getCopiesAvailable() + changeInCopies : -1;
+            if (available < 0) {
+                System.out.println("Book not found or cannot reduce copies below 0");
+                return false;
+            }
+            store.books.put(bookId, InMemoryStore.withCopies(row, available, Math.max(row.totalCopies + changeInCopies, available)));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * LoanRepository over InMemoryStore. Book and member must exist, due date (and return date)
+ * may not precede the loan date and fines are never negative. Issue and return change the loan
+ * and the book's availability under one lock, the way BookLoanDAO does in one transaction.
+ */
+final class InMemoryLoanRepository implements LoanRepository {
+    private static final Comparator<BookLoan> NEWEST_FIRST = Comparator
+            .comparing(BookLoan::getLoanDate).thenComparingInt(BookLoan::getLoanId).reversed();
+
+    private final InMemoryStore store;
+
+    InMemoryLoanRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean issueBook(int bookId, int memberId, int loanDurationDays) {
+        return issueBook(bookId, memberId, loanDurationDays, BookLoanDAO.DEFAULT_MAX_LOANS);
+    }
+
+    @Override
+    public boolean issueBook(int bookId, int memberId, int loanDurationDays, int maxLoans) {
+        BookLoan loan = new BookLoan(bookId, memberId, LocalDate.now().plusDays(loanDurationDays));
+
+        // A change here is visible to count scans at once, so it is counted before the gate opens
+        ActiveLoanCounter counter = ActiveLoanCounter.getInstance();
+        Lock changeLock = counter.changeLock();
+        changeLock.lock();
+        try {
+            synchronized (store.writeLock) {
+                // Counted from the member -> loans index under the lock, so the limit holds under concurrency
+                int currentLoans = store.openLoansOfMember(memberId);
+                if (currentLoans >= maxLoans) {
+                    System.out.println("Member has reached loan limit (already has " + currentLoans + " loans)");
+                    return false;
+                }
+
+                String violation = check(loan);
+                if (violation != null) {
+                    System.err.println("Error issuing book: " + violation);
+                    return false;
+                }
+                if (!store.reserveCopy(bookId)) {
+                    System.out.println("Book is not available for lending");
+                    return false;
+                }
+                insert(loan);
+            }
+            counter.applyNow(memberId, 1);
+        } finally {
+            changeLock.unlock();
+        }
+
+        System.out.println("Book issued successfully. Loan ID: " + loan.getLoanId());
+        return true;
+    }
+
+    @Override
+    public boolean returnBook(int loanId) {
+        BigDecimal fine;
+        int memberId;
+
+        ActiveLoanCounter counter = ActiveLoanCounter.getInstance();
+        Lock changeLock = counter.changeLock();
+        changeLock.lock();
+        try {
+            synchronized (store.writeLock) {
+                BookLoan loan = store.loans.get(loanId);
+                if (loan == null || loan.getStatus() == BookLoan.LoanStatus.RETURNED) {
+                    System.out.println("Invalid loan or book already returned");
+                    return false;
+                }
+
+                // Refused like the database's RELEASE_BOOK_COPY failing chk_total_copies: nothing changes
+                if (!store.releaseCopy(loan.getBookId())) {
+                    System.err.println("Error returning book: copies_available would exceed total_copies for book "
+                            + loan.getBookId());
+                    return false;
+                }
+
+                fine = BookLoanDAO.calculateCurrentFine(loan);
+                memberId = loan.getMemberId();
+
+                BookLoan returned = InMemoryStore.copyOf(loan);
+                returned.setReturnDate(LocalDate.now());
+                returned.setFineAmount(fine);
+                returned.setStatus(BookLoan.LoanStatus.RETURNED);
+                store.loans.put(loanId, returned);
+                store.openLoansByDueDate.remove(InMemoryStore.dueKey(loan.getDueDate(), loanId));
+            }
+            counter.applyNow(memberId, -1);
+        } finally {
+            changeLock.unlock();
+        }
+
+        if (fine.compareTo(BigDecimal.ZERO) > 0) {
+            System.out.println("Book returned successfully. Fine amount: $" + fine);
+        } else {
+            System.out.println("Book returned successfully. No fine.");
+        }
+        return true;
+    }
+
+    @Override
+    public BookLoan getLoanById(int loanId) {
+        BookLoan loan = store.loans.get(loanId);
+        return loan != null ? store.toLoan(loan) : null;
+    }
+
+    @Override
+    public List<BookLoan> getActiveLoans() {
+        return loansByDueDate(Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<BookLoan> getOverdueLoans() {
+        return loansByDueDate(InMemoryStore.dueKey(LocalDate.now(), 0));
+    }
+
+    // Open loans with index keys below the bound, in (due_date, loan_id) order
+    private List<BookLoan> loansByDueDate(long bound) {
+        List<BookLoan> loans = new ArrayList<>();
+        for (long key : store.openLoansByDueDate.headSet(bound)) {
+            BookLoan loan = store.loans.get(InMemoryStore.loanIdOf(key));
+            if (loan != null && InMemoryStore.isOpen(loan)) {
+                loans.add(store.toLoan(loan));
+            }
+        }
+        return loans;
+    }
+
+    @Override
+    public List<BookLoan> getMemberLoans(int memberId) {
+        List<BookLoan> loans = new ArrayList<>();
+        for (int loanId : InMemoryStore.idsIn(store.loansByMember, memberId)) {
+            BookLoan loan = store.loans.get(loanId);
+            if (loan != null) loans.add(store.toLoan(loan));
+        }
+        loans.sort(NEWEST_FIRST);
+        return loans;
+    }
+
+    @Override
+    public BulkResult createLoans(List<BookLoan> loans) {
+        return createLoans(loans, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Override
+    public BulkResult createLoans(List<BookLoan> loans, int chunkSize) {
+        return store.bulkInsert("loans", loans, chunkSize, null, null, this::check, this::insert);
+    }
+
+    private String check(BookLoan loan) {
+        if (!store.books.containsKey(loan.getBookId())) {
+            return "foreign key constraint on book_loans.book_id (no book " + loan.getBookId() + ")";
+        }
+        if (!store.members.containsKey(loan.getMemberId())) {
+            return "foreign key constraint on book_loans.member_id (no member " + loan.getMemberId() + ")";
+        }
+        if (loan.getDueDate() == null) {
+            return "Column 'due_date' cannot be null";
+        }
+        LocalDate loanDate = loan.getLoanDate() != null ? loan.getLoanDate() : LocalDate.now();
+        if (loan.getDueDate().isBefore(loanDate)) {
+            return "Check constraint 'chk_dates' is violated";
+        }
+        if (loan.getReturnDate() != null && loan.getReturnDate().isBefore(loanDate)) {
+            return "Check constraint 'chk_return_date' is violated";
+        }
+        if (loan.getFineAmount() != null && loan.getFineAmount().signum() < 0) {
+            return "Check constraint 'chk_fine_amount' is violated";
+        }
+        return null;
+    }
+
+    // Caller holds the write lock and has checked the row
+    private void insert(BookLoan loan) {
+        int loanId = store.loanIds.incrementAndGet();
+        loan.setLoanId(loanId);
+        BookLoan row = InMemoryStore.copyOf(loan);
+        if (row.getLoanDate() == null) row.setLoanDate(LocalDate.now());
+        if (row.getFineAmount() == null) row.setFineAmount(BigDecimal.ZERO);
+        if (row.getStatus() == null) row.setStatus(BookLoan.LoanStatus.ACTIVE);
+
+        store.loans.put(loanId, row);
+        InMemoryStore.addTo(store.loansByBook, row.getBookId(), loanId);
+        InMemoryStore.addTo(store.loansByMember, row.getMemberId(), loanId);
+        if (InMemoryStore.isOpen(row)) {
+            store.openLoansByDueDate.add(InMemoryStore.dueKey(row.getDueDate(), loanId));
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> getActiveLoanCountsByMember(Consumer<Runnable> atSnapshot) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        // Counted in one go under the write lock: the count is its own snapshot
+        atSnapshot.accept(() -> {
+            synchronized (store.writeLock) {
+                for (long key : store.openLoansByDueDate) {
+                    BookLoan loan = store.loans.get(InMemoryStore.loanIdOf(key));
+                    if (loan != null && InMemoryStore.isOpen(loan)) {
+                        counts.merge(loan.getMemberId(), 1, Integer::sum);
+                    }
+                }
+            }
+        });
+        return counts;
+    }
+
+    @Override
+    public int updateOverdueFines() {
+        if (BookLoanDAO.isDerivedFines()) {
+            return 0;
+        }
+        int updateCount = storeOverdue(LocalDate.now(), false);
+        if (updateCount > 0) {
+            System.out.println("Updated fines and status for " + updateCount + " loans");
+        }
+        return updateCount;
+    }
+
+    /**
+     * The due-date index already limits the work to loans past due, so no watermark is kept
+     */
+    @Override
+    public int markOverdueLoans(LocalDate today) {
+        if (BookLoanDAO.isDerivedFines()) {
+            return 0;
+        }
+        return storeOverdue(today, true);
+    }
+
+    /**
+     * Store OVERDUE status and the fine as of today on open loans due before today
+     * @param activeOnly only loans not yet marked (markOverdueLoans), otherwise refresh all fines
+     */
+    private int storeOverdue(LocalDate today, boolean activeOnly) {
+        int updated = 0;
+        synchronized (store.writeLock) {
+            for (long key : store.openLoansByDueDate.headSet(InMemoryStore.dueKey(today, 0))) {
+                BookLoan loan = store.loans.get(InMemoryStore.loanIdOf(key));
+                if (loan == null || (activeOnly && loan.getStatus() != BookLoan.LoanStatus.ACTIVE)) {
+                    continue;
+                }
+                BookLoan overdue = InMemoryStore.copyOf(loan);
+                overdue.setStatus(BookLoan.LoanStatus.OVERDUE);
+                overdue.setFineAmount(fineAsOf(loan.getDueDate(), today));
+                store.loans.put(loan.getLoanId(), overdue);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public OverdueTotals getOverdueTotals() {
+        LocalDate today = LocalDate.now();
+        int overdueLoans = 0;
+        long overdueDays = 0;
+        for (long key : store.openLoansByDueDate.headSet(InMemoryStore.dueKey(today, 0))) {
+            BookLoan loan = store.loans.get(InMemoryStore.loanIdOf(key));
+            if (loan != null && InMemoryStore.isOpen(loan)) {
+                overdueLoans++;
+                overdueDays += ChronoUnit.DAYS.between(loan.getDueDate(), today);
+            }
+        }
+        return new OverdueTotals(overdueLoans, BookLoanDAO.getDailyFineRate().multiply(BigDecimal.valueOf(overdueDays)));
+    }
+
+    @Override
+    public int updateOverdueLoans() {
+        return updateOverdueFines();
+    }
+
+    private static BigDecimal fineAsOf(LocalDate dueDate, LocalDate today) {
+        return BookLoanDAO.getDailyFineRate().multiply(BigDecimal.valueOf(ChronoUnit.DAYS.between(dueDate, today)));
+    }
+}
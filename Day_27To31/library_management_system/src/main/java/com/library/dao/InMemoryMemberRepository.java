@@ -0,0 +1,196 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * MemberRepository over InMemoryStore. Email is required and unique; a member with loans
+ * (returned ones included) cannot be deleted.
+ */
+final class InMemoryMemberRepository implements MemberRepository {
+    private final InMemoryStore store;
+
+    InMemoryMemberRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean createMember(Member member) {
+        synchronized (store.writeLock) {
+            if (member.getEmail() != null && store.membersByEmail.containsKey(InMemoryStore.uniqueKey(member.getEmail()))) {
+                System.out.println("Member with email " + member.getEmail() + " already exists!");
+                return false;
+            }
+            String violation = check(member);
+            if (violation != null) {
+                System.err.println("Error creating member: " + violation);
+                return false;
+            }
+            insert(member);
+            return true;
+        }
+    }
+
+    @Override
+    public BulkResult createMembers(List<Member> members) {
+        return createMembers(members, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Override
+    public BulkResult createMembers(List<Member> members, int chunkSize) {
+        return store.bulkInsert("members", members, chunkSize, Member::getEmail, store.membersByEmail,
+                this::check, this::insert);
+    }
+
+    // Caller holds the write lock and has checked the row
+    private void insert(Member member) {
+        int memberId = store.memberIds.incrementAndGet();
+        member.setMemberId(memberId);
+        Member row = CachingMemberDAO.copyOf(member);
+        if (row.getJoinDate() == null) {
+            row.setJoinDate(LocalDate.now());
+        }
+        if (row.getMembershipType() == null) {
+            row.setMembershipType(Member.MembershipType.BASIC);
+        }
+        store.members.put(memberId, row);
+        store.membersByEmail.put(InMemoryStore.uniqueKey(row.getEmail()), memberId);
+        store.membersByName.add(new Page.Key(row.getName(), memberId));
+    }
+
+    private String check(Member member) {
+        if (member.getName() == null) {
+            return "Column 'name' cannot be null";
+        }
+        if (member.getEmail() == null) {
+            return "Column 'email' cannot be null";
+        }
+        return null;
+    }
+
+    @Override
+    public Member getMemberById(int memberId) {
+        return CachingMemberDAO.copyOf(store.members.get(memberId));
+    }
+
+    @Override
+    public List<Member> getAllMembers() {
+        List<Member> members = new ArrayList<>(store.members.size());
+        for (Page.Key key : store.membersByName) {
+            Member member = getMemberById(key.getId());
+            if (member != null) members.add(member);
+        }
+        return members;
+    }
+
+    @Override
+    public Page<Member> getMembersPage(Page.Key after, int limit) {
+        return store.page(store.membersByName, after, limit, this::getMemberById);
+    }
+
+    @Override
+    public Stream<Member> streamAllMembers() {
+        return store.membersByName.stream()
+                .map(key -> getMemberById(key.getId()))
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public boolean updateMember(Member member) {
+        synchronized (store.writeLock) {
+            Member old = store.members.get(member.getMemberId());
+            if (old == null) {
+                return false;
+            }
+            String email = InMemoryStore.uniqueKey(member.getEmail());
+            Integer owner = email != null ? store.membersByEmail.get(email) : null;
+            if (owner != null && owner != member.getMemberId()) {
+                System.out.println("Email " + member.getEmail() + " is already in use!");
+                return false;
+            }
+            String violation = check(member);
+            if (violation != null) {
+                System.err.println("Error updating member: " + violation);
+                return false;
+            }
+
+            // The UPDATE does not touch join_date
+            Member row = CachingMemberDAO.copyOf(member);
+            row.setJoinDate(old.getJoinDate());
+            store.membersByEmail.remove(InMemoryStore.uniqueKey(old.getEmail()));
+            store.membersByEmail.put(email, row.getMemberId());
+            store.membersByName.remove(new Page.Key(old.getName(), row.getMemberId()));
+            store.membersByName.add(new Page.Key(row.getName(), row.getMemberId()));
+            store.members.put(row.getMemberId(), row);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteMember(int memberId) {
+        synchronized (store.writeLock) {
+            Member old = store.members.get(memberId);
+            if (old == null) {
+                return false;
+            }
+            int activeLoanCount = store.openLoansOfMember(memberId);
+            if (activeLoanCount > 0) {
+                System.out.println("Cannot delete member - has " + activeLoanCount + " active loans");
+                return false;
+            }
+            if (!InMemoryStore.idsIn(store.loansByMember, memberId).isEmpty()) {
+                System.err.println("Error deleting member: foreign key constraint on book_loans.member_id");
+                return false;
+            }
+            store.members.remove(memberId);
+            store.membersByEmail.remove(InMemoryStore.uniqueKey(old.getEmail()));
+            store.membersByName.remove(new Page.Key(old.getName(), memberId));
+            return true;
+        }
+    }
+
+    /**
+     * Same matching as "name LIKE '%pattern%'" under the table's case-insensitive collation
+     */
+    @Override
+    public List<Member> searchMembersByName(String namePattern) {
+        Pattern like = likePattern("%" + namePattern + "%");
+        List<Member> members = new ArrayList<>();
+        for (Page.Key key : store.membersByName) {
+            if (like.matcher(key.getSortValue()).matches()) {
+                Member member = getMemberById(key.getId());
+                if (member != null) members.add(member);
+            }
+        }
+        return members;
+    }
+
+    @Override
+    public int getActiveLoanCount(int memberId) {
+        return store.openLoansOfMember(memberId);
+    }
+
+    // % is any run of characters, _ one character, backslash escapes the next one
+    private static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder(like.length() + 8);
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '\\' && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+}
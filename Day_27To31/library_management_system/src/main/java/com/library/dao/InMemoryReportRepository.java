@@ -0,0 +1,91 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+
+import java.time.LocalDate;
+
+/**
+ * ReportRepository over InMemoryStore. Counts come from table sizes and the indexes;
+ * the rest is a single pass over the books or members.
+ */
+final class InMemoryReportRepository implements ReportRepository {
+    private final InMemoryStore store;
+
+    InMemoryReportRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public LibraryCounts getLibraryCounts() {
+        int[] totalCopies = {0};
+        store.books.forEach((bookId, row) -> totalCopies[0] += row.book.getCopiesAvailable());
+        return new LibraryCounts(
+                store.authors.size(),
+                store.books.size(),
+                totalCopies[0],
+                store.members.size(),
+                store.openLoansByDueDate.size(),
+                store.openLoansByDueDate.headSet(InMemoryStore.dueKey(LocalDate.now(), 0)).size()
+        );
+    }
+
+    @Override
+    public MembershipCounts getMembershipCounts() {
+        int[] counts = new int[Member.MembershipType.values().length];
+        store.members.forEach((memberId, member) -> counts[member.getMembershipType().ordinal()]++);
+        return new MembershipCounts(counts[Member.MembershipType.BASIC.ordinal()],
+                counts[Member.MembershipType.PREMIUM.ordinal()]);
+    }
+
+    @Override
+    public AvailabilityCounts getAvailabilityCounts() {
+        int[] counts = {0, 0};
+        store.books.forEach((bookId, row) -> counts[row.book.getCopiesAvailable() > 0 ? 0 : 1]++);
+        return new AvailabilityCounts(counts[0], counts[1]);
+    }
+
+    /**
+     * Taken under the write lock: a loan and its copy change together, and a lock-free scan
+     * could see one without the other and report drift that is not there
+     */
+    @Override
+    public InventoryCheck checkInventory() {
+        int negativeBooks = 0;
+        int mismatchedBooks = 0;
+        long copiesDrift = 0;
+        synchronized (store.writeLock) {
+            for (int bookId : store.books.keys()) {
+                InMemoryStore.BookRow row = store.books.get(bookId);
+                int available = row.book.getCopiesAvailable();
+                long drift = (row.totalCopies - available) - store.openLoansOfBook(bookId);
+                if (available < 0) negativeBooks++;
+                if (drift != 0) mismatchedBooks++;
+                copiesDrift += drift;
+            }
+        }
+        return new InventoryCheck(negativeBooks, mismatchedBooks, copiesDrift);
+    }
+
+    @Override
+    public Page<AuthorBookCount> getAuthorBookCountsPage(Page.Key after, int limit) {
+        return store.page(store.authorsByName, after, limit, this::authorBookCount);
+    }
+
+    private AuthorBookCount authorBookCount(int authorId) {
+        Author author = store.authors.get(authorId);
+        if (author == null) {
+            return null;
+        }
+        int bookCount = 0;
+        long totalCopies = 0;
+        for (int bookId : InMemoryStore.idsIn(store.booksByAuthor, authorId)) {
+            InMemoryStore.BookRow row = store.books.get(bookId);
+            if (row != null) {
+                bookCount++;
+                totalCopies += row.book.getCopiesAvailable();
+            }
+        }
+        return new AuthorBookCount(authorId, author.getName(), bookCount, totalCopies);
+    }
+}
@@ -0,0 +1,281 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.util.ConcurrentIntObjectMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Tables and secondary indexes of the in-memory storage backend, shared by the InMemory*Repository classes.
+ *
+ * Rows are kept in maps keyed by primitive id and are never changed in place: a write stores a new
+ * row object, so readers need no lock and always see a whole row. Writers serialize on writeLock,
+ * which makes the check-then-write of every constraint in database-schema.sql atomic: unique ISBN
+ * and emails, copies_available >= 0 and <= total_copies, and the ON DELETE RESTRICT foreign keys.
+ *
+ * Secondary indexes (maintained under writeLock, read lock-free):
+ *   ISBN -> book, author/member email -> id (case-insensitive, like the table collation),
+ *   author -> books, book -> loans, member -> loans, open loans by (due_date, loan_id),
+ *   and (name, id) orderings for the listings and keyset pages.
+ */
+final class InMemoryStore {
+
+    // Orders keys like the name/title indexes: case-insensitive, then by id
+    static final Comparator<Page.Key> KEY_ORDER = Comparator
+            .comparing(Page.Key::getSortValue, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(Page.Key::getId);
+
+    final Object writeLock = new Object();
+
+    final ConcurrentIntObjectMap<Author> authors = new ConcurrentIntObjectMap<>();
+    final ConcurrentIntObjectMap<BookRow> books = new ConcurrentIntObjectMap<>();
+    final ConcurrentIntObjectMap<Member> members = new ConcurrentIntObjectMap<>();
+    final ConcurrentIntObjectMap<BookLoan> loans = new ConcurrentIntObjectMap<>();
+
+    // AUTO_INCREMENT counters
+    final AtomicInteger authorIds = new AtomicInteger();
+    final AtomicInteger bookIds = new AtomicInteger();
+    final AtomicInteger memberIds = new AtomicInteger();
+    final AtomicInteger loanIds = new AtomicInteger();
+
+    final ConcurrentHashMap<String, Integer> authorsByEmail = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Integer> booksByIsbn = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Integer> membersByEmail = new ConcurrentHashMap<>();
+
+    final ConcurrentIntObjectMap<Set<Integer>> booksByAuthor = new ConcurrentIntObjectMap<>();
+    final ConcurrentIntObjectMap<Set<Integer>> loansByBook = new ConcurrentIntObjectMap<>();
+    final ConcurrentIntObjectMap<Set<Integer>> loansByMember = new ConcurrentIntObjectMap<>();
+
+    // Open loans as dueKey(due_date, loan_id), the in-memory idx_loan_due_date
+    final ConcurrentSkipListSet<Long> openLoansByDueDate = new ConcurrentSkipListSet<>();
+
+    final ConcurrentSkipListSet<Page.Key> authorsByName = new ConcurrentSkipListSet<>(KEY_ORDER);
+    final ConcurrentSkipListSet<Page.Key> booksByTitle = new ConcurrentSkipListSet<>(KEY_ORDER);
+    final ConcurrentSkipListSet<Page.Key> membersByName = new ConcurrentSkipListSet<>(KEY_ORDER);
+
+    /**
+     * A stored book with the column the Book model does not carry
+     */
+    static final class BookRow {
+        final Book book;
+        final int totalCopies;
+
+        BookRow(Book book, int totalCopies) {
+            this.book = book;
+            this.totalCopies = totalCopies;
+        }
+    }
+
+    static BookRow withCopies(BookRow row, int available, int totalCopies) {
+        Book book = CachingBookDAO.copyOf(row.book);
+        book.setCopiesAvailable(available);
+        return new BookRow(book, totalCopies);
+    }
+
+    /**
+     * Take one copy off the shelf for a loan; false if none is left. Caller holds the write lock.
+     */
+    boolean reserveCopy(int bookId) {
+        BookRow row = books.get(bookId);
+        if (row == null || row.book.getCopiesAvailable() <= 0) {
+            return false;
+        }
+        books.put(bookId, withCopies(row, row.book.getCopiesAvailable() - 1, row.totalCopies));
+        return true;
+    }
+
+    /**
+     * Put a returned copy back on the shelf; false if the book is gone or already has all its
+     * copies (chk_total_copies). Caller holds the write lock.
+     */
+    boolean releaseCopy(int bookId) {
+        BookRow row = books.get(bookId);
+        if (row == null || row.book.getCopiesAvailable() + 1 > row.totalCopies) {
+            return false;
+        }
+        books.put(bookId, withCopies(row, row.book.getCopiesAvailable() + 1, row.totalCopies));
+        return true;
+    }
+
+    /**
+     * Key for unique columns: the tables compare them case-insensitively. Null stays null,
+     * and like a UNIQUE index any number of rows may have a null value.
+     */
+    static String uniqueKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * (due_date, loan_id) packed so that numeric order is index order
+     */
+    static long dueKey(LocalDate dueDate, int loanId) {
+        return (dueDate.toEpochDay() << 32) | (loanId & 0xFFFFFFFFL);
+    }
+
+    static int loanIdOf(long dueKey) {
+        return (int) dueKey;
+    }
+
+    static void addTo(ConcurrentIntObjectMap<Set<Integer>> index, int key, int id) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+    }
+
+    static void removeFrom(ConcurrentIntObjectMap<Set<Integer>> index, int key, int id) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+
+    static Set<Integer> idsIn(ConcurrentIntObjectMap<Set<Integer>> index, int key) {
+        Set<Integer> ids = index.get(key);
+        return ids != null ? ids : Collections.emptySet();
+    }
+
+    static boolean isOpen(BookLoan loan) {
+        return loan.getReturnDate() == null && loan.getStatus() != BookLoan.LoanStatus.RETURNED;
+    }
+
+    // Readers get copies; stored rows never leave the store
+
+    Book toBook(BookRow row) {
+        Book book = CachingBookDAO.copyOf(row.book);
+        Author author = authors.get(book.getAuthorId());
+        book.setAuthorName(author != null ? author.getName() : null);
+        return book;
+    }
+
+    BookLoan toLoan(BookLoan stored) {
+        BookLoan loan = copyOf(stored);
+        BookRow book = books.get(loan.getBookId());
+        Member member = members.get(loan.getMemberId());
+        loan.setBookTitle(book != null ? book.book.getTitle() : null);
+        loan.setMemberName(member != null ? member.getName() : null);
+        loan.setMemberType(member != null ? member.getMembershipType().toString() : null);
+        BookLoanDAO.applyOverdueAsOfToday(loan);
+        return loan;
+    }
+
+    static BookLoan copyOf(BookLoan loan) {
+        return new BookLoan(loan.getLoanId(), loan.getBookId(), loan.getMemberId(), loan.getLoanDate(),
+                loan.getReturnDate(), loan.getDueDate(), loan.getFineAmount(), loan.getStatus());
+    }
+
+    /**
+     * Open loans of a book
+     */
+    int openLoansOfBook(int bookId) {
+        int open = 0;
+        for (int loanId : idsIn(loansByBook, bookId)) {
+            BookLoan loan = loans.get(loanId);
+            if (loan != null && isOpen(loan)) open++;
+        }
+        return open;
+    }
+
+    int openLoansOfMember(int memberId) {
+        int open = 0;
+        for (int loanId : idsIn(loansByMember, memberId)) {
+            BookLoan loan = loans.get(loanId);
+            if (loan != null && isOpen(loan)) open++;
+        }
+        return open;
+    }
+
+    /**
+     * One keyset page read from a (name, id) index; rows deleted since the key was read are skipped
+     */
+    <T> Page<T> page(NavigableSet<Page.Key> index, Page.Key after, int limit, IntFunction<T> rowById) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        NavigableSet<Page.Key> keys = after == null ? index : index.tailSet(after, false);
+        List<T> items = new ArrayList<>(Math.min(limit, 256));
+        Page.Key last = null;
+        for (Page.Key key : keys) {
+            T row = rowById.apply(key.getId());
+            if (row == null) continue;
+            if (items.size() == limit) {
+                return new Page<>(items, last);
+            }
+            items.add(row);
+            last = key;
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Checks one row against the constraints; returns the violation, or null if it can be inserted
+     */
+    @FunctionalInterface
+    interface RowCheck<T> {
+        String check(T row);
+    }
+
+    /**
+     * The in-memory counterpart of BulkInsert: chunk by chunk under the write lock, rows whose
+     * unique key exists (or repeats within the chunk) are skipped, and a chunk with any
+     * constraint violation is rejected whole, as its transaction would be rolled back.
+     *
+     * @param uniqueKey the row's unique column value, or null for tables without a natural key
+     * @param uniqueIndex the index holding existing values of that column
+     */
+    <T> BulkResult bulkInsert(String description, List<T> rows, int chunkSize,
+                              Function<T, String> uniqueKey, ConcurrentHashMap<String, Integer> uniqueIndex,
+                              RowCheck<T> rowCheck, Consumer<T> insert) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        BulkResult result = new BulkResult();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<T> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            long start = System.nanoTime();
+            synchronized (writeLock) {
+                List<T> toInsert = new ArrayList<>(chunk.size());
+                Set<String> seen = new HashSet<>();
+                String violation = null;
+                for (T row : chunk) {
+                    String key = uniqueKey != null ? uniqueKey(uniqueKey.apply(row)) : null;
+                    if (key != null && (uniqueIndex.containsKey(key) || !seen.add(key))) {
+                        continue;
+                    }
+                    violation = rowCheck.check(row);
+                    if (violation != null) break;
+                    toInsert.add(row);
+                }
+
+                if (violation != null) {
+                    System.err.println("Error bulk inserting " + description + " (rows " + from + "-"
+                            + (from + chunk.size() - 1) + "): " + violation);
+                    result.addFailed(chunk.size());
+                } else {
+                    for (T row : toInsert) {
+                        insert.accept(row);
+                    }
+                    result.addInserted(toInsert.size());
+                    result.addDuplicates(chunk.size() - toInsert.size());
+                }
+            }
+            result.addChunk();
+            result.addElapsedNanos(System.nanoTime() - start);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,515 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy counts per book in a memory-mapped file, so a checkout or return is a compare-and-set
+ * on a fixed-width record instead of an UPDATE on the books row.
+ *
+ * Record for book_id n is the 8 bytes at HEADER_SIZE + n * 8:
+ * (total_copies + 1) << 32 | copies_available, where 0 means the book is not tracked.
+ * Both counters live in one word, so a single CAS keeps 0 <= available <= total.
+ *
+ * For tracked books the file is the authority and books.copies_available / total_copies
+ * follow it: changed records are written back in one batch every library.inventory.syncIntervalMs.
+ * The header says whether the last process closed the file cleanly (everything written back).
+ * If it did not, open() recomputes availability from total_copies and open loans, since a
+ * record cannot tell a committed checkout from one whose transaction died with the process.
+ *
+ * Off unless library.inventory.file is set. Until open() succeeds every call answers
+ * UNTRACKED and the DAOs update the books table directly, as before.
+ */
+public final class InventoryStore {
+    private static final InventoryStore INSTANCE = new InventoryStore();
+
+    private static final String FILE = LibraryConfig.getString("library.inventory.file", null);
+    // Highest book_id + 1 the file has room for; books beyond it stay on the SQL path
+    private static final int CAPACITY = LibraryConfig.getInt("library.inventory.capacity", 1 << 20);
+    private static final long SYNC_INTERVAL_MILLIS = LibraryConfig.getLong("library.inventory.syncIntervalMs", 500);
+    // 0 forces every change to disk before returning, a negative value leaves it to the OS until close
+    private static final long FLUSH_INTERVAL_MILLIS = LibraryConfig.getLong("library.inventory.flushIntervalMs", 1_000);
+
+    private static final int MAGIC = 0x4C494E56; // "LINV"
+    private static final int VERSION = 1;
+    private static final int STATE_OPEN = 1;
+    private static final int STATE_CLEAN = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 8;
+    private static final int STATE_OFFSET = 12;
+
+    private static final VarHandle RECORD =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final String SELECT_COUNTS =
+            "SELECT book_id, copies_available, total_copies FROM books WHERE book_id < ?";
+    private static final String SELECT_TOTALS =
+            "SELECT COUNT(*) AS books, COALESCE(SUM(copies_available), 0) AS available, " +
+                    "COALESCE(SUM(total_copies), 0) AS total FROM books WHERE book_id < ?";
+    private static final String UPDATE_COUNTS =
+            "UPDATE books SET copies_available = ?, total_copies = ? WHERE book_id = ?";
+
+    public enum Change {
+        APPLIED,
+        REFUSED,  // no copy left, or the change would take availability below 0
+        UNTRACKED // not in the file; use the books table
+    }
+
+    // Books changed since the last write-back
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile MappedByteBuffer records;
+    private FileChannel channel;
+    private int capacity;
+    private ScheduledExecutorService scheduler;
+
+    private InventoryStore() {}
+
+    public static InventoryStore getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isOpen() {
+        return records != null;
+    }
+
+    /**
+     * Map the file (creating it if needed), bring it in line with the books table and start
+     * the write-back and flush jobs
+     * @return false if the store is not configured or could not be opened
+     */
+    public synchronized boolean open() {
+        if (records != null) {
+            return true;
+        }
+        if (FILE == null || Repositories.isInMemory()) {
+            return false;
+        }
+        Path path = Paths.get(FILE);
+        try {
+            if (CAPACITY <= 0 || CAPACITY > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+                throw new IOException("library.inventory.capacity out of range: " + CAPACITY);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean existing = channel.size() > 0;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) CAPACITY * RECORD_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            capacity = CAPACITY;
+
+            boolean clean = existing && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+                    && buffer.getInt(8) == CAPACITY && buffer.getInt(STATE_OFFSET) == STATE_CLEAN;
+            // Marked open before any record changes, so a crash from here on is seen as one
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, CAPACITY);
+            buffer.putInt(STATE_OFFSET, STATE_OPEN);
+            buffer.force();
+
+            boolean loaded;
+            if (clean) {
+                loaded = matchesDatabase(buffer) || load(buffer);
+            } else {
+                if (existing) {
+                    System.out.println("Inventory file " + path + " was not closed cleanly - rebuilding from loans");
+                }
+                loaded = Repositories.books().reconcileCopiesAvailable() >= 0 && load(buffer);
+            }
+            if (!loaded) {
+                closeChannel();
+                return false;
+            }
+            buffer.force();
+            records = buffer;
+            // Cached books were read from the table; availability now comes from the file
+            EntityCache.BOOKS.invalidateAll();
+            startJobs();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error opening inventory file " + path + ": " + e.getMessage());
+            closeChannel();
+            return false;
+        }
+    }
+
+    /**
+     * Write back pending changes and mark the file clean. Changes made after this go to the table.
+     */
+    public synchronized void close() {
+        if (records == null) {
+            return;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        MappedByteBuffer buffer = records;
+        records = null;
+        // Left marked open if the table is behind, so the next open() rebuilds it
+        if (writeBack(buffer) >= 0 && dirty.isEmpty()) {
+            buffer.putInt(STATE_OFFSET, STATE_CLEAN);
+        }
+        buffer.force();
+        closeChannel();
+    }
+
+    /**
+     * Available copies, or -1 if the book is not tracked
+     */
+    public int getCopiesAvailable(int bookId) {
+        MappedByteBuffer buffer = records;
+        if (buffer == null || !inRange(bookId)) {
+            return -1;
+        }
+        long counts = (long) RECORD.getVolatile(buffer, offset(bookId));
+        return counts == 0 ? -1 : available(counts);
+    }
+
+    public boolean isTracked(int bookId) {
+        return getCopiesAvailable(bookId) >= 0;
+    }
+
+    /**
+     * Take one copy if one is left
+     */
+    public Change reserve(int bookId) {
+        MappedByteBuffer buffer = records;
+        if (buffer == null || !inRange(bookId)) {
+            return Change.UNTRACKED;
+        }
+        int offset = offset(bookId);
+        long counts;
+        do {
+            counts = (long) RECORD.getVolatile(buffer, offset);
+            if (counts == 0) {
+                return Change.UNTRACKED;
+            }
+            if (available(counts) <= 0) {
+                return Change.REFUSED;
+            }
+        } while (!RECORD.compareAndSet(buffer, offset, counts, counts - 1));
+        changed(buffer, bookId);
+        return Change.APPLIED;
+    }
+
+    /**
+     * Put one copy back
+     */
+    public Change release(int bookId) {
+        MappedByteBuffer buffer = records;
+        if (buffer == null || !inRange(bookId)) {
+            return Change.UNTRACKED;
+        }
+        int offset = offset(bookId);
+        long counts;
+        do {
+            counts = (long) RECORD.getVolatile(buffer, offset);
+            if (counts == 0) {
+                return Change.UNTRACKED;
+            }
+            if (available(counts) >= total(counts)) {
+                // chk_total_copies: more returns than loans means drift; reconcile fixes it
+                System.err.println("Inventory for book " + bookId + " already has all copies available");
+                return Change.REFUSED;
+            }
+        } while (!RECORD.compareAndSet(buffer, offset, counts, counts + 1));
+        changed(buffer, bookId);
+        return Change.APPLIED;
+    }
+
+    /**
+     * Add or remove physical copies, with BookDAO.updateCopies' rules: both counters move,
+     * availability may not go below 0. Written back before returning.
+     */
+    public Change adjustCopies(int bookId, int changeInCopies) {
+        MappedByteBuffer buffer = records;
+        if (buffer == null || !inRange(bookId)) {
+            return Change.UNTRACKED;
+        }
+        int offset = offset(bookId);
+        long counts;
+        int available;
+        do {
+            counts = (long) RECORD.getVolatile(buffer, offset);
+            if (counts == 0) {
+                return Change.UNTRACKED;
+            }
+            available = available(counts) + changeInCopies;
+            if (available < 0) {
+                return Change.REFUSED;
+            }
+        } while (!RECORD.compareAndSet(buffer, offset, counts,
+                pack(available, Math.max(total(counts) + changeInCopies, available))));
+        changed(buffer, bookId);
+        // Total copies only exist in the file until written back; don't leave them to the next round
+        UnitOfWork.afterCommit(this::sync);
+        return Change.APPLIED;
+    }
+
+    /**
+     * Track a book that was just inserted into the table
+     */
+    public void bookCreated(int bookId, int copiesAvailable, int totalCopies) {
+        MappedByteBuffer buffer = records;
+        if (buffer != null && inRange(bookId)) {
+            RECORD.setVolatile(buffer, offset(bookId), pack(copiesAvailable, totalCopies));
+            flushIfRequired(buffer, bookId);
+        }
+    }
+
+    /**
+     * Stop tracking a book that was just deleted from the table
+     */
+    public void bookDeleted(int bookId) {
+        MappedByteBuffer buffer = records;
+        if (buffer != null && inRange(bookId)) {
+            RECORD.setVolatile(buffer, offset(bookId), 0L);
+            dirty.remove(bookId);
+            flushIfRequired(buffer, bookId);
+        }
+    }
+
+    /**
+     * Reload every record from the books table, e.g. after BookDAO.reconcileCopiesAvailable.
+     * Changes not yet written back are dropped, so run it while no loans are being issued.
+     */
+    public synchronized boolean reload() {
+        MappedByteBuffer buffer = records;
+        if (buffer == null) {
+            return false;
+        }
+        dirty.clear();
+        return load(buffer);
+    }
+
+    /**
+     * Write the current counts of changed books to the books table in one batch
+     * @return books written, or -1 if the batch failed (they stay pending)
+     */
+    public synchronized int sync() {
+        return writeBack(records);
+    }
+
+    private int writeBack(MappedByteBuffer buffer) {
+        if (buffer == null || dirty.isEmpty()) {
+            return 0;
+        }
+        Integer[] bookIds = dirty.toArray(new Integer[0]);
+        for (Integer bookId : bookIds) {
+            // Removed before the record is read: a change after this point marks it again
+            dirty.remove(bookId);
+        }
+
+        PreparedStatement pstmt = null;
+        int written = 0;
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
+            pstmt = conn.prepareStatement(UPDATE_COUNTS);
+            for (int bookId : bookIds) {
+                long counts = (long) RECORD.getVolatile(buffer, offset(bookId));
+                if (counts == 0) continue;
+                pstmt.setInt(1, available(counts));
+                pstmt.setInt(2, total(counts));
+                pstmt.setInt(3, bookId);
+                pstmt.addBatch();
+                written++;
+            }
+            if (written > 0) {
+                pstmt.executeBatch();
+            }
+            uow.commit();
+            return written;
+        } catch (SQLException e) {
+            System.err.println("Error writing inventory back to books: " + e.getMessage());
+            for (Integer bookId : bookIds) {
+                dirty.add(bookId);
+            }
+            return -1;
+        } finally {
+            closeStatement(pstmt);
+        }
+    }
+
+    /**
+     * Books whose counts have not been written back yet
+     */
+    public int getPendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Take the book's availability from the file if it is tracked
+     */
+    void applyTo(Book book) {
+        if (book != null) {
+            int available = getCopiesAvailable(book.getBookId());
+            if (available >= 0) {
+                book.setCopiesAvailable(available);
+            }
+        }
+    }
+
+    private void changed(MappedByteBuffer buffer, int bookId) {
+        dirty.add(bookId);
+        flushIfRequired(buffer, bookId);
+    }
+
+    private void flushIfRequired(MappedByteBuffer buffer, int bookId) {
+        if (FLUSH_INTERVAL_MILLIS == 0) {
+            buffer.force(offset(bookId), RECORD_SIZE);
+        }
+    }
+
+    /**
+     * A cleanly closed file is only used if it still adds up to the table: a tool run without
+     * the store in between would have changed the table behind its back
+     */
+    private boolean matchesDatabase(MappedByteBuffer buffer) {
+        long books = 0;
+        long available = 0;
+        long total = 0;
+        for (int bookId = 0; bookId < capacity; bookId++) {
+            long counts = (long) RECORD.get(buffer, offset(bookId));
+            if (counts != 0) {
+                books++;
+                available += available(counts);
+                total += total(counts);
+            }
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_TOTALS);
+            pstmt.setInt(1, capacity);
+            rs = pstmt.executeQuery();
+            return rs.next() && rs.getLong("books") == books
+                    && rs.getLong("available") == available && rs.getLong("total") == total;
+        } catch (SQLException e) {
+            System.err.println("Error checking inventory file against books: " + e.getMessage());
+            return false;
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+    }
+
+    private boolean load(MappedByteBuffer buffer) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_COUNTS);
+            pstmt.setInt(1, capacity);
+            rs = pstmt.executeQuery();
+
+            boolean[] present = new boolean[capacity];
+            while (rs.next()) {
+                int bookId = rs.getInt("book_id");
+                if (bookId < 0) continue;
+                present[bookId] = true;
+                RECORD.setVolatile(buffer, offset(bookId),
+                        pack(rs.getInt("copies_available"), rs.getInt("total_copies")));
+            }
+            for (int bookId = 0; bookId < capacity; bookId++) {
+                if (!present[bookId]) {
+                    RECORD.setVolatile(buffer, offset(bookId), 0L);
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error loading inventory from books: " + e.getMessage());
+            return false;
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+    }
+
+    private void startJobs() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        if (SYNC_INTERVAL_MILLIS > 0) {
+            scheduler.scheduleWithFixedDelay(this::sync,
+                    SYNC_INTERVAL_MILLIS, SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        if (FLUSH_INTERVAL_MILLIS > 0) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                MappedByteBuffer buffer = records;
+                if (buffer != null) buffer.force();
+            }, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean inRange(int bookId) {
+        return bookId >= 0 && bookId < capacity;
+    }
+
+    private static int offset(int bookId) {
+        return HEADER_SIZE + bookId * RECORD_SIZE;
+    }
+
+    private static long pack(int available, int total) {
+        return ((long) (total + 1) << 32) | (available & 0xFFFFFFFFL);
+    }
+
+    private static int available(long counts) {
+        return (int) counts;
+    }
+
+    private static int total(long counts) {
+        return (int) (counts >>> 32) - 1;
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing inventory file: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private void closeStatement(PreparedStatement pstmt) {
+        try {
+            if (pstmt != null) pstmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing resources: " + e.getMessage());
+        }
+    }
+
+    private void closeResources(Connection conn, PreparedStatement pstmt, ResultSet rs) {
+        try {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing resources: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,719 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+import Day_27To31.library_management_system.src.main.java.com.library.util.ConcurrentIntObjectMap;
+import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of loan events: an audit trail of issues and returns, and the source
+ * in-memory loan state is rebuilt from at startup instead of reading book_loans.
+ *
+ * BookLoanDAO appends ISSUED, RETURNED and FINE_ASSESSED once its transaction commits, and
+ * OverdueSweep appends OVERDUE_MARKED. A single writer thread takes everything queued since
+ * its last write and issues one write and one fsync for it (group commit), so concurrent
+ * checkouts share a force. By default the appending thread waits until its group is durable.
+ *
+ * Records are fixed-width, each with its own CRC32C:
+ *   type(1) seq(8) loan_id(4) book_id(4) member_id(4) epoch_day(8) amount_cents(8) crc(4)
+ * Every library.journal.snapshotEvents events the open loans are written to a compact
+ * snapshot and the journal segments it covers are deleted. open() loads the newest snapshot
+ * and replays the journal after it, cutting off a torn tail. Without a usable snapshot it
+ * takes one from book_loans (one read of the open loans).
+ *
+ * Events are queued by after-commit hooks, so two transactions on the same loan can reach the
+ * journal in the opposite order of their commits: a return right behind its checkout can be
+ * written before the ISSUED event. A RETURNED event for a loan that is not open therefore
+ * leaves a tombstone, and the late ISSUED for that loan consumes it instead of reopening the
+ * loan. Tombstones are kept in snapshots and dropped once they have outlived a full snapshot
+ * interval; loan ids are never reused, so a stale one can only hide an ISSUED that was lost.
+ *
+ * The journal follows the database, so the last group before a crash can be missing from it.
+ * After an unclean shutdown, wasRecoveredFromCrash() tells ActiveLoanCounter to reconcile
+ * with the table right after warming.
+ *
+ * Off unless library.journal.dir is set.
+ */
+public final class LoanJournal {
+    private static final LoanJournal INSTANCE = new LoanJournal();
+
+    private static final String DIR = LibraryConfig.getString("library.journal.dir", null);
+    private static final int SNAPSHOT_EVERY = LibraryConfig.getInt("library.journal.snapshotEvents", 100_000);
+    private static final boolean WAIT_FOR_SYNC = LibraryConfig.getBoolean("library.journal.waitForSync", true);
+
+    private static final int MAX_BATCH = 4096;
+    private static final int RECORD_SIZE = 41;
+    private static final int SNAPSHOT_ENTRY_SIZE = 21;
+    private static final int SNAPSHOT_MAGIC = 0x4C4E534E; // "LNSN"
+    private static final int SNAPSHOT_VERSION = 2; // 2 added the tombstones
+    private static final int TOMBSTONE_ENTRY_SIZE = 12;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String OPEN_MARKER = "loans.open";
+
+    private static final String SELECT_OPEN_LOANS =
+            "SELECT loan_id, book_id, member_id, due_date, status FROM book_loans " +
+                    "WHERE status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL";
+
+    public enum EventType {
+        ISSUED,         // epoch_day = due date
+        RETURNED,       // epoch_day = return date
+        OVERDUE_MARKED, // epoch_day = date marked, amount = fine as of that date
+        FINE_ASSESSED   // epoch_day = date charged, amount = fine charged on return
+    }
+
+    private static final Pending STOP = new Pending(null, 0, 0, 0, 0, 0);
+
+    // Open loans as of the last written event; written by the writer thread only
+    private final ConcurrentIntObjectMap<OpenLoan> openLoans = new ConcurrentIntObjectMap<>();
+    // Loans returned before their ISSUED event was written, by the seq of the RETURNED event;
+    // writer thread only
+    private final Map<Integer, Long> tombstones = new HashMap<>();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // Appends and close() agree on it, so nothing is queued behind STOP
+    private final Object gate = new Object();
+
+    private volatile boolean open;
+    private volatile long lastSeq;
+    private boolean recoveredFromCrash;
+    private Path dir;
+    private FileChannel segment;
+    private int eventsSinceSnapshot;
+    private long lastSnapshotSeq;
+    private Thread writer;
+
+    private LoanJournal() {}
+
+    public static LoanJournal getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * True if the previous process did not close the journal, so it may lack its last events
+     */
+    public boolean wasRecoveredFromCrash() {
+        return recoveredFromCrash;
+    }
+
+    /**
+     * Sequence number of the last event written
+     */
+    public long getLastSequence() {
+        return lastSeq;
+    }
+
+    public int getOpenLoanCount() {
+        return openLoans.size();
+    }
+
+    /**
+     * Load the newest snapshot, replay the journal after it and start the writer
+     * @return false if the journal is not configured or could not be opened
+     */
+    public synchronized boolean open() {
+        if (open) {
+            return true;
+        }
+        if (DIR == null || Repositories.isInMemory()) {
+            return false;
+        }
+        try {
+            dir = Paths.get(DIR);
+            Files.createDirectories(dir);
+            Path marker = dir.resolve(OPEN_MARKER);
+            recoveredFromCrash = Files.exists(marker);
+
+            openLoans.clear();
+            tombstones.clear();
+            long snapshotSeq = loadLatestSnapshot();
+            if (snapshotSeq < 0 || !replay(snapshotSeq)) {
+                if (!bootstrap()) {
+                    return false;
+                }
+            }
+
+            if (!Files.exists(marker)) {
+                Files.createFile(marker);
+            }
+            eventsSinceSnapshot = 0;
+            synchronized (gate) {
+                open = true;
+            }
+            writer = new Thread(this::writeLoop, "loan-journal-writer");
+            writer.setDaemon(true);
+            writer.start();
+            if (recoveredFromCrash) {
+                System.out.println("Loan journal was not closed cleanly - replayed through event " + lastSeq);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error opening loan journal in " + DIR + ": " + e.getMessage());
+            closeSegment();
+            return false;
+        }
+    }
+
+    /**
+     * Write what is queued, take a final snapshot and mark the journal closed cleanly
+     */
+    public void close() {
+        Thread w;
+        synchronized (gate) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            queue.add(STOP);
+            w = writer;
+        }
+        try {
+            w.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Journal a new loan once the surrounding transaction commits
+     */
+    public void loanIssued(int loanId, int bookId, int memberId, LocalDate dueDate) {
+        UnitOfWork.afterCommit(() -> await(append(EventType.ISSUED, loanId, bookId, memberId, dueDate, null)));
+    }
+
+    /**
+     * Journal a return, and the fine charged for it if there is one, once the transaction commits
+     */
+    public void loanReturned(int loanId, int bookId, int memberId, LocalDate returnDate, BigDecimal fine) {
+        UnitOfWork.afterCommit(() -> {
+            CompletableFuture<Void> done = append(EventType.RETURNED, loanId, bookId, memberId, returnDate, null);
+            if (fine != null && fine.signum() > 0) {
+                done = append(EventType.FINE_ASSESSED, loanId, bookId, memberId, returnDate, fine);
+            }
+            await(done);
+        });
+    }
+
+    /**
+     * Journal a loan marked overdue once the transaction commits
+     */
+    public void overdueMarked(int loanId, int bookId, int memberId, LocalDate asOf, BigDecimal fine) {
+        UnitOfWork.afterCommit(() -> await(append(EventType.OVERDUE_MARKED, loanId, bookId, memberId, asOf, fine)));
+    }
+
+    /**
+     * Loans bulk-loaded by BookLoanDAO.createLoans: issued, and returned where they were
+     */
+    public void loansLoaded(List<BookLoan> loans) {
+        CompletableFuture<Void> last = null;
+        for (BookLoan loan : loans) {
+            if (loan.getLoanId() <= 0) continue;
+            last = append(EventType.ISSUED, loan.getLoanId(), loan.getBookId(), loan.getMemberId(), loan.getDueDate(), null);
+            if (loan.getReturnDate() != null || loan.getStatus() == BookLoan.LoanStatus.RETURNED) {
+                LocalDate returned = loan.getReturnDate() != null ? loan.getReturnDate() : loan.getDueDate();
+                last = append(EventType.RETURNED, loan.getLoanId(), loan.getBookId(), loan.getMemberId(), returned, null);
+                if (loan.getFineAmount() != null && loan.getFineAmount().signum() > 0) {
+                    last = append(EventType.FINE_ASSESSED, loan.getLoanId(), loan.getBookId(), loan.getMemberId(),
+                            returned, loan.getFineAmount());
+                }
+            }
+        }
+        await(last);
+    }
+
+    /**
+     * Open loan count per member as of the last written event, or null if the journal is not open
+     */
+    public Map<Integer, Integer> getActiveLoanCountsByMember() {
+        if (!open) {
+            return null;
+        }
+        Map<Integer, Integer> counts = new HashMap<>();
+        openLoans.forEach((loanId, loan) -> counts.merge(loan.memberId, 1, Integer::sum));
+        return counts;
+    }
+
+    private CompletableFuture<Void> append(EventType type, int loanId, int bookId, int memberId,
+                                           LocalDate date, BigDecimal amount) {
+        synchronized (gate) {
+            if (!open) {
+                return null;
+            }
+            Pending pending = new Pending(type, loanId, bookId, memberId,
+                    date != null ? date.toEpochDay() : 0, toCents(amount));
+            queue.add(pending);
+            return pending.done;
+        }
+    }
+
+    private static void await(CompletableFuture<Void> done) {
+        if (done == null || !WAIT_FOR_SYNC) {
+            return;
+        }
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            // The writer has reported it and closed the journal; the database is unaffected
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_BATCH * RECORD_SIZE);
+        CRC32C crc = new CRC32C();
+        boolean stopping = false;
+
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            buffer.clear();
+            long seq = lastSeq;
+            List<Pending> written = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                if (pending == STOP) {
+                    stopping = true;
+                    continue;
+                }
+                pending.seq = ++seq;
+                encode(buffer, crc, pending);
+                written.add(pending);
+            }
+            batch.clear();
+            if (written.isEmpty()) {
+                continue;
+            }
+
+            try {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+                segment.force(false);
+            } catch (IOException e) {
+                fail("Error writing loan journal: " + e.getMessage(), written);
+                return;
+            }
+
+            lastSeq = seq;
+            for (Pending pending : written) {
+                apply(pending.type, pending.seq, pending.loanId, pending.bookId, pending.memberId, pending.epochDay);
+                pending.done.complete(null);
+            }
+
+            eventsSinceSnapshot += written.size();
+            if (SNAPSHOT_EVERY > 0 && eventsSinceSnapshot >= SNAPSHOT_EVERY) {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    // The events are safe in the journal; the next snapshot tries again
+                    System.err.println("Error writing loan journal snapshot: " + e.getMessage());
+                }
+            }
+        }
+
+        try {
+            snapshot();
+            closeSegment();
+            Files.deleteIfExists(dir.resolve(OPEN_MARKER));
+        } catch (IOException e) {
+            System.err.println("Error closing loan journal: " + e.getMessage());
+            closeSegment();
+        }
+    }
+
+    // The journal stops taking events; what is queued is failed so no caller waits forever
+    private void fail(String message, List<Pending> written) {
+        System.err.println(message + " - journal closed, run ActiveLoanCounter.reconcile() to resync");
+        synchronized (gate) {
+            open = false;
+        }
+        CompletionException failure = new CompletionException(new IOException(message));
+        for (Pending pending : written) {
+            pending.done.completeExceptionally(failure);
+        }
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            if (pending != STOP) pending.done.completeExceptionally(failure);
+        }
+        closeSegment();
+    }
+
+    private static void encode(ByteBuffer buffer, CRC32C crc, Pending pending) {
+        int start = buffer.position();
+        buffer.put((byte) pending.type.ordinal());
+        buffer.putLong(pending.seq);
+        buffer.putInt(pending.loanId);
+        buffer.putInt(pending.bookId);
+        buffer.putInt(pending.memberId);
+        buffer.putLong(pending.epochDay);
+        buffer.putLong(pending.amountCents);
+        crc.reset();
+        crc.update(buffer.array(), start, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void apply(EventType type, long seq, int loanId, int bookId, int memberId, long epochDay) {
+        switch (type) {
+            case ISSUED:
+                // Written after its own return: the loan is already closed
+                if (tombstones.remove(loanId) == null) {
+                    openLoans.put(loanId, new OpenLoan(bookId, memberId, epochDay, false));
+                }
+                break;
+            case RETURNED:
+                if (openLoans.remove(loanId) == null) {
+                    tombstones.put(loanId, seq);
+                }
+                break;
+            case OVERDUE_MARKED:
+                OpenLoan loan = openLoans.get(loanId);
+                if (loan != null) {
+                    openLoans.put(loanId, new OpenLoan(loan.bookId, loan.memberId, loan.dueEpochDay, true));
+                }
+                break;
+            default:
+                break; // FINE_ASSESSED is audit only
+        }
+    }
+
+    /**
+     * Start a new segment, write the open loans as of lastSeq and drop what the snapshot covers
+     */
+    private void snapshot() throws IOException {
+        long seq = lastSeq;
+        closeSegment();
+        segment = openSegment(seq + 1);
+        // A late ISSUED follows its RETURNED within moments; one snapshot interval is plenty
+        long previous = lastSnapshotSeq;
+        tombstones.values().removeIf(returnedAt -> returnedAt <= previous);
+        writeSnapshot(seq);
+        eventsSinceSnapshot = 0;
+
+        for (Map.Entry<Long, Path> e : list(SEGMENT_SUFFIX).entrySet()) {
+            if (e.getKey() <= seq) Files.deleteIfExists(e.getValue());
+        }
+        for (Map.Entry<Long, Path> e : list(SNAPSHOT_SUFFIX).entrySet()) {
+            if (e.getKey() < seq) Files.deleteIfExists(e.getValue());
+        }
+    }
+
+    private void writeSnapshot(long seq) throws IOException {
+        int[] loanIds = openLoans.keys();
+        ByteBuffer buffer = ByteBuffer.allocate(20 + loanIds.length * SNAPSHOT_ENTRY_SIZE
+                + 4 + tombstones.size() * TOMBSTONE_ENTRY_SIZE + 4);
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.putInt(SNAPSHOT_VERSION);
+        buffer.putLong(seq);
+        int countAt = buffer.position();
+        buffer.putInt(0);
+        int count = 0;
+        for (int loanId : loanIds) {
+            OpenLoan loan = openLoans.get(loanId);
+            if (loan == null) continue;
+            buffer.putInt(loanId);
+            buffer.putInt(loan.bookId);
+            buffer.putInt(loan.memberId);
+            buffer.putLong(loan.dueEpochDay);
+            buffer.put((byte) (loan.overdue ? 1 : 0));
+            count++;
+        }
+        buffer.putInt(countAt, count);
+        buffer.putInt(tombstones.size());
+        for (Map.Entry<Integer, Long> e : tombstones.entrySet()) {
+            buffer.putInt(e.getKey());
+            buffer.putLong(e.getValue());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path target = dir.resolve(fileName(seq, SNAPSHOT_SUFFIX));
+        Path tmp = dir.resolve(fileName(seq, SNAPSHOT_SUFFIX) + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastSnapshotSeq = seq;
+    }
+
+    /**
+     * Load the newest snapshot that checks out
+     * @return its sequence number, or -1 if there is none
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Map.Entry<Long, Path>> snapshots = new ArrayList<>(list(SNAPSHOT_SUFFIX).entrySet());
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i).getValue();
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            int version = buffer.remaining() >= 24 && buffer.getInt(0) == SNAPSHOT_MAGIC ? buffer.getInt(4) : -1;
+            if (version != 1 && version != SNAPSHOT_VERSION) {
+                System.err.println("Skipping unreadable loan journal snapshot " + path);
+                continue;
+            }
+            // Version 1 snapshots have no tombstone section
+            int count = buffer.getInt(16);
+            long entriesEnd = 20 + (long) count * SNAPSHOT_ENTRY_SIZE;
+            int tombstoneCount = 0;
+            if (version > 1 && count >= 0 && entriesEnd + 4 <= buffer.remaining()) {
+                tombstoneCount = buffer.getInt((int) entriesEnd);
+                entriesEnd += 4;
+            }
+            long length = entriesEnd + (long) tombstoneCount * TOMBSTONE_ENTRY_SIZE;
+            CRC32C crc = new CRC32C();
+            if (count < 0 || tombstoneCount < 0 || buffer.remaining() != length + 4
+                    || !checksumMatches(crc, buffer.array(), 0, (int) length, buffer.getInt((int) length))) {
+                System.err.println("Skipping damaged loan journal snapshot " + path);
+                continue;
+            }
+
+            long seq = buffer.getLong(8);
+            buffer.position(20);
+            openLoans.clear();
+            for (int n = 0; n < count; n++) {
+                int loanId = buffer.getInt();
+                openLoans.put(loanId, new OpenLoan(buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.get() == 1));
+            }
+            tombstones.clear();
+            if (version > 1) {
+                buffer.getInt();
+                for (int n = 0; n < tombstoneCount; n++) {
+                    tombstones.put(buffer.getInt(), buffer.getLong());
+                }
+            }
+            lastSeq = seq;
+            lastSnapshotSeq = seq;
+            return seq;
+        }
+        return -1;
+    }
+
+    /**
+     * Apply the journal after the snapshot and open the last segment for appending.
+     * A torn or corrupt record ends the journal: the segment is cut there.
+     * @return false if events are missing between the snapshot and the journal
+     */
+    private boolean replay(long snapshotSeq) throws IOException {
+        TreeMap<Long, Path> segments = list(SEGMENT_SUFFIX);
+        CRC32C crc = new CRC32C();
+        long seq = snapshotSeq;
+        Path last = null;
+        boolean cut = false;
+
+        for (Map.Entry<Long, Path> e : segments.entrySet()) {
+            Path path = e.getValue();
+            if (cut) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            if (e.getKey() > seq + 1) {
+                System.err.println("Loan journal is missing events " + (seq + 1) + " to " + (e.getKey() - 1));
+                return false;
+            }
+
+            byte[] bytes = Files.readAllBytes(path);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int valid = 0;
+            while (valid + RECORD_SIZE <= bytes.length) {
+                long recordSeq = buffer.getLong(valid + 1);
+                int type = bytes[valid];
+                if (!checksumMatches(crc, bytes, valid, RECORD_SIZE - 4, buffer.getInt(valid + RECORD_SIZE - 4))
+                        || type < 0 || type >= EventType.values().length
+                        || (recordSeq > seq && recordSeq != seq + 1)) {
+                    break;
+                }
+                if (recordSeq > seq) {
+                    apply(EventType.values()[type], recordSeq, buffer.getInt(valid + 9), buffer.getInt(valid + 13),
+                            buffer.getInt(valid + 17), buffer.getLong(valid + 21));
+                    seq = recordSeq;
+                }
+                valid += RECORD_SIZE;
+            }
+            if (valid < bytes.length) {
+                System.out.println("Loan journal " + path.getFileName() + ": cut " + (bytes.length - valid)
+                        + " byte(s) of torn or damaged tail");
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                    channel.force(true);
+                }
+                cut = true;
+            }
+            last = path;
+        }
+
+        lastSeq = seq;
+        if (last != null && segments.lastKey() <= seq + 1) {
+            segment = FileChannel.open(last, StandardOpenOption.WRITE);
+            segment.position(segment.size());
+        } else {
+            segment = openSegment(seq + 1);
+        }
+        return true;
+    }
+
+    /**
+     * No usable snapshot: start over from the open loans in book_loans
+     */
+    private boolean bootstrap() throws IOException {
+        closeSegment();
+        for (Path path : list(SEGMENT_SUFFIX).values()) Files.deleteIfExists(path);
+        for (Path path : list(SNAPSHOT_SUFFIX).values()) Files.deleteIfExists(path);
+        openLoans.clear();
+        tombstones.clear();
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_OPEN_LOANS);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                openLoans.put(rs.getInt("loan_id"), new OpenLoan(rs.getInt("book_id"), rs.getInt("member_id"),
+                        rs.getDate("due_date").toLocalDate().toEpochDay(), "OVERDUE".equals(rs.getString("status"))));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading open loans for the loan journal: " + e.getMessage());
+            return false;
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+
+        // Nothing was lost that the table does not already have
+        recoveredFromCrash = false;
+        lastSeq = 0;
+        writeSnapshot(0);
+        segment = openSegment(1);
+        return true;
+    }
+
+    private FileChannel openSegment(long firstSeq) throws IOException {
+        FileChannel channel = FileChannel.open(dir.resolve(fileName(firstSeq, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    // Files with the given suffix by the sequence number in their name
+    private TreeMap<Long, Path> list(String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "loans-*" + suffix)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring("loans-".length(), name.length() - suffix.length())), path);
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring unexpected file in loan journal directory: " + name);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static String fileName(long seq, String suffix) {
+        return String.format("loans-%020d%s", seq, suffix);
+    }
+
+    private static boolean checksumMatches(CRC32C crc, byte[] bytes, int offset, int length, int expected) {
+        crc.reset();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue() == expected;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0;
+    }
+
+    private void closeSegment() {
+        try {
+            if (segment != null) segment.close();
+        } catch (IOException e) {
+            System.err.println("Error closing loan journal segment: " + e.getMessage());
+        }
+        segment = null;
+    }
+
+    private void closeResources(Connection conn, PreparedStatement pstmt, ResultSet rs) {
+        try {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing resources: " + e.getMessage());
+        }
+    }
+
+    private static final class OpenLoan {
+        private final int bookId;
+        private final int memberId;
+        private final long dueEpochDay;
+        private final boolean overdue;
+
+        OpenLoan(int bookId, int memberId, long dueEpochDay, boolean overdue) {
+            this.bookId = bookId;
+            this.memberId = memberId;
+            this.dueEpochDay = dueEpochDay;
+            this.overdue = overdue;
+        }
+    }
+
+    private static final class Pending {
+        private final EventType type;
+        private final int loanId;
+        private final int bookId;
+        private final int memberId;
+        private final long epochDay;
+        private final long amountCents;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long seq;
+
+        Pending(EventType type, int loanId, int bookId, int memberId, long epochDay, long amountCents) {
+            this.type = type;
+            this.loanId = loanId;
+            this.bookId = bookId;
+            this.memberId = memberId;
+            this.epochDay = epochDay;
+            this.amountCents = amountCents;
+        }
+    }
+}
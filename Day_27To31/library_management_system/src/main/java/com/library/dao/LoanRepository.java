@@ -0,0 +1,97 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Loan storage. Issue and return move the book's availability in the same step as the loan.
+ *
+ * Loans read back carry book title, member name and membership type. Open loans past due are
+ * reported OVERDUE with their fine as of today, whether or not anything was stored for them yet.
+ */
+public interface LoanRepository {
+
+    /**
+     * Issue with the default limit of 3 open loans per member
+     */
+    boolean issueBook(int bookId, int memberId, int loanDurationDays);
+
+    /**
+     * Reserve a copy and record the loan; false if no copy is left or the member already has maxLoans
+     */
+    boolean issueBook(int bookId, int memberId, int loanDurationDays, int maxLoans);
+
+    /**
+     * Close the loan with its fine as of today and release the copy
+     */
+    boolean returnBook(int loanId);
+
+    BookLoan getLoanById(int loanId);
+
+    /**
+     * Open loans by due date
+     */
+    List<BookLoan> getActiveLoans();
+
+    /**
+     * Open loans due before today, by due date
+     */
+    List<BookLoan> getOverdueLoans();
+
+    /**
+     * All loans of a member, newest first
+     */
+    List<BookLoan> getMemberLoans(int memberId);
+
+    /**
+     * Bulk-load historical loans (including returned ones) as they are.
+     * Inventory is not touched; run reconcileCopiesAvailable() on the books afterwards.
+     */
+    BulkResult createLoans(List<BookLoan> loans);
+
+    BulkResult createLoans(List<BookLoan> loans, int chunkSize);
+
+    /**
+     * Open loan count per member (null on failure).
+     * atSnapshot is handed the step that fixes what the counts see (run once, unless reading fails
+     * before it); the counts then hold every loan change committed before that step and none after it.
+     */
+    Map<Integer, Integer> getActiveLoanCountsByMember(Consumer<Runnable> atSnapshot);
+
+    /**
+     * Store status and fine of every overdue open loan; 0 with derived fines
+     */
+    int updateOverdueFines();
+
+    /**
+     * Mark loans that became overdue since the last run; 0 with derived fines
+     * @return loans marked, or -1 on failure
+     */
+    int markOverdueLoans(LocalDate today);
+
+    /**
+     * Count and total current fines of open overdue loans, or null on failure
+     */
+    OverdueTotals getOverdueTotals();
+
+    int updateOverdueLoans();
+
+    class OverdueTotals {
+        private final int overdueLoans;
+        private final BigDecimal totalFines;
+
+        public OverdueTotals(int overdueLoans, BigDecimal totalFines) {
+            this.overdueLoans = overdueLoans;
+            this.totalFines = totalFines;
+        }
+
+        // Getters
+        public int getOverdueLoans() { return overdueLoans; }
+        public BigDecimal getTotalFines() { return totalFines; }
+    }
+}
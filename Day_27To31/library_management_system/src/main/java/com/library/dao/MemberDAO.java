@@ -6,20 +6,30 @@ import Day_27To31.library_management_system.src.main.java.com.library.util.Datab
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
-public class MemberDAO {
+public class MemberDAO implements MemberRepository {
     private static final String INSERT_MEMBER =
             "INSERT INTO members (name, email, phone, join_date, membership_type) VALUES (?, ?, ?, ?, ?)";
     private static final String SELECT_MEMBER_BY_ID =
             "SELECT * FROM members WHERE member_id = ?";
     private static final String SELECT_ALL_MEMBERS =
             "SELECT * FROM members ORDER BY name";
+    // Keyset pages over idx_member_name (name, member_id)
+    private static final String SELECT_MEMBERS_FIRST_PAGE =
+            "SELECT * FROM members ORDER BY name, member_id LIMIT ?";
+    private static final String SELECT_MEMBERS_PAGE_AFTER =
+            "SELECT * FROM members WHERE name >= ? AND (name > ? OR member_id > ?) ORDER BY name, member_id LIMIT ?";
+    private static final String STREAM_ALL_MEMBERS =
+            "SELECT * FROM members ORDER BY name, member_id";
     private static final String UPDATE_MEMBER =
             "UPDATE members SET name = ?, email = ?, phone = ?, membership_type = ? WHERE member_id = ?";
     private static final String DELETE_MEMBER =
             "DELETE FROM members WHERE member_id = ?";
     private static final String CHECK_EMAIL_EXISTS =
             "SELECT COUNT(*) FROM members WHERE email = ? AND member_id != ?";
+    private static final String SELECT_EXISTING_EMAILS =
+            "SELECT email FROM members WHERE email IN ";
     private static final String GET_MEMBER_LOAN_COUNT =
             "SELECT COUNT(*) FROM book_loans WHERE member_id = ? AND status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL";
     private static final String SEARCH_MEMBERS_BY_NAME =
@@ -39,11 +49,7 @@ public class MemberDAO {
             }
 
             pstmt = conn.prepareStatement(INSERT_MEMBER, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setString(1, member.getName());
-            pstmt.setString(2, member.getEmail());
-            pstmt.setString(3, member.getPhone());
-            pstmt.setDate(4, Date.valueOf(member.getJoinDate()));
-            pstmt.setString(5, member.getMembershipType().toString());
+            bindInsertParameters(pstmt, member);
 
             int rowsAffected = pstmt.executeUpdate();
 
@@ -64,6 +70,28 @@ public class MemberDAO {
         return false;
     }
 
+    /**
+     * Insert many members with batched multi-row INSERTs, one transaction per chunk.
+     * Members whose email is already registered (or repeats within the list) are skipped.
+     */
+    public BulkResult createMembers(List<Member> members) {
+        return createMembers(members, BulkInsert.DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkResult createMembers(List<Member> members, int chunkSize) {
+        return new BulkInsert<Member>("members", INSERT_MEMBER, SELECT_EXISTING_EMAILS,
+                Member::getEmail, this::bindInsertParameters, Member::setMemberId)
+                .run(members, chunkSize);
+    }
+
+    private void bindInsertParameters(PreparedStatement pstmt, Member member) throws SQLException {
+        pstmt.setString(1, member.getName());
+        pstmt.setString(2, member.getEmail());
+        pstmt.setString(3, member.getPhone());
+        pstmt.setDate(4, Date.valueOf(member.getJoinDate()));
+        pstmt.setString(5, member.getMembershipType().toString());
+    }
+
     public Member getMemberById(int memberId) {
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -113,6 +141,58 @@ public class MemberDAO {
         return members;
     }
 
+    /**
+     * Members ordered by name, starting after the given key (null for the first page)
+     */
+    public Page<Member> getMembersPage(Page.Key after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        List<Member> members = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            if (after == null) {
+                pstmt = conn.prepareStatement(SELECT_MEMBERS_FIRST_PAGE);
+                pstmt.setInt(1, limit + 1);
+            } else {
+                pstmt = conn.prepareStatement(SELECT_MEMBERS_PAGE_AFTER);
+                pstmt.setString(1, after.getSortValue());
+                pstmt.setString(2, after.getSortValue());
+                pstmt.setInt(3, after.getId());
+                pstmt.setInt(4, limit + 1);
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                members.add(extractMemberFromResultSet(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving members page: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+
+        if (members.size() <= limit) {
+            return new Page<>(members, null);
+        }
+        members.remove(limit);
+        Member last = members.get(limit - 1);
+        return new Page<>(members, new Page.Key(last.getName(), last.getMemberId()));
+    }
+
+    /**
+     * All members ordered by name, read lazily in fetch-size batches.
+     * The stream holds a connection until it is closed, so use try-with-resources.
+     */
+    public Stream<Member> streamAllMembers() {
+        return ResultSetStream.query(STREAM_ALL_MEMBERS, "members", this::extractMemberFromResultSet);
+    }
+
     public boolean updateMember(Member member) {
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -209,9 +289,7 @@ public class MemberDAO {
             rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                int count = rs.getInt(1);
-                System.out.println("DEBUG: Member " + memberId + " has " + count + " active loans");
-                return count;
+                return rs.getInt(1);
             }
         } catch (SQLException e) {
             System.err.println("Error getting loan count: " + e.getMessage());
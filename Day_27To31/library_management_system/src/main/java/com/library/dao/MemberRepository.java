@@ -0,0 +1,55 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Member storage
+ */
+public interface MemberRepository {
+
+    /**
+     * Insert a member and set its generated id; false if the email is already registered
+     */
+    boolean createMember(Member member);
+
+    /**
+     * Insert many members, skipping those whose email is already registered (or repeats within the list)
+     */
+    BulkResult createMembers(List<Member> members);
+
+    BulkResult createMembers(List<Member> members, int chunkSize);
+
+    Member getMemberById(int memberId);
+
+    List<Member> getAllMembers();
+
+    /**
+     * Members ordered by name, starting after the given key (null for the first page)
+     */
+    Page<Member> getMembersPage(Page.Key after, int limit);
+
+    /**
+     * All members ordered by name; close the stream when done
+     */
+    Stream<Member> streamAllMembers();
+
+    boolean updateMember(Member member);
+
+    /**
+     * Delete a member; refused while they have loans
+     */
+    boolean deleteMember(int memberId);
+
+    /**
+     * Members whose name contains the given text, case-insensitively (% and _ act as LIKE wildcards)
+     */
+    List<Member> searchMembersByName(String namePattern);
+
+    /**
+     * Open (not yet returned) loans of a member
+     */
+    int getActiveLoanCount(int memberId);
+}
@@ -0,0 +1,230 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Incremental overdue marking behind BookLoanDAO.markOverdueLoans.
+ *
+ * Walks idx_loan_due_date in (due_date, loan_id) order from the last watermark up to
+ * yesterday, a bounded key range per transaction: each chunk marks its still-ACTIVE open
+ * loans OVERDUE with their fine as of today and stores its end key as the resume cursor in
+ * maintenance_watermarks, then commits. A finished pass moves processed_through to today,
+ * so the next run only sees loans whose due date has passed since. An interrupted run
+ * resumes from the cursor; re-marking is harmless since only ACTIVE rows are touched.
+ * With the LoanJournal open, each chunk first reads the loans it marks so it can journal them.
+ */
+final class OverdueSweep {
+    static final int DEFAULT_CHUNK_SIZE = LibraryConfig.getInt("library.overdue.chunkSize", 1000);
+    private static final String JOB_NAME = "overdue-loans";
+
+    private static final String SELECT_WATERMARK =
+            "SELECT processed_through, cursor_due_date, cursor_loan_id FROM maintenance_watermarks WHERE job_name = ?";
+    private static final String SAVE_WATERMARK =
+            "INSERT INTO maintenance_watermarks (job_name, processed_through, cursor_due_date, cursor_loan_id) " +
+                    "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE processed_through = VALUES(processed_through), " +
+                    "cursor_due_date = VALUES(cursor_due_date), cursor_loan_id = VALUES(cursor_loan_id)";
+    // First run only: start at the oldest open loan instead of the beginning of the table
+    private static final String SELECT_FIRST_OPEN_DUE_DATE =
+            "SELECT MIN(due_date) FROM book_loans WHERE status = 'ACTIVE' AND return_date IS NULL";
+    // Key of the chunkSize-th index entry after the cursor; none means the rest fits in one chunk
+    private static final String SELECT_CHUNK_END =
+            "SELECT due_date, loan_id FROM book_loans " +
+                    "WHERE due_date >= ? AND (due_date > ? OR loan_id > ?) AND due_date < ? " +
+                    "ORDER BY due_date, loan_id LIMIT 1 OFFSET ?";
+    private static final String CHUNK_RANGE =
+            "WHERE due_date >= ? AND (due_date > ? OR loan_id > ?) " +
+                    "AND due_date <= ? AND (due_date < ? OR loan_id <= ?) " +
+                    "AND status = 'ACTIVE' AND return_date IS NULL";
+    private static final String MARK_OVERDUE_CHUNK =
+            "UPDATE book_loans SET status = 'OVERDUE', fine_amount = DATEDIFF(?, due_date) * ? " + CHUNK_RANGE;
+    // Only with the loan journal open: the loans the UPDATE is about to mark, locked until commit
+    private static final String SELECT_OVERDUE_CHUNK =
+            "SELECT loan_id, book_id, member_id, due_date FROM book_loans " + CHUNK_RANGE + " FOR UPDATE";
+
+    private final BigDecimal dailyFineRate;
+    private final int chunkSize;
+
+    OverdueSweep(BigDecimal dailyFineRate, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.dailyFineRate = dailyFineRate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return loans marked overdue, or -1 if a chunk failed (earlier chunks stay committed)
+     */
+    int run(LocalDate today) {
+        int marked = 0;
+        try {
+            LocalDate processedThrough;
+            Key after;
+            try (UnitOfWork uow = UnitOfWork.begin()) {
+                Connection conn = uow.getConnection();
+                Watermark watermark = loadWatermark(conn);
+                if (watermark == null) {
+                    processedThrough = firstOpenDueDate(conn);
+                    if (processedThrough == null) {
+                        // No open loans at all: nothing before today can become overdue later
+                        saveWatermark(conn, today, null);
+                        uow.commit();
+                        return 0;
+                    }
+                    after = new Key(processedThrough, 0);
+                } else {
+                    processedThrough = watermark.processedThrough;
+                    after = watermark.cursor != null ? watermark.cursor : new Key(processedThrough, 0);
+                }
+            }
+
+            if (!after.dueDate.isBefore(today)) {
+                return 0;
+            }
+
+            while (true) {
+                try (UnitOfWork uow = UnitOfWork.begin()) {
+                    Connection conn = uow.getConnection();
+                    Key end = findChunkEnd(conn, after, today);
+                    // Last chunk: everything due before today
+                    Key upper = end != null ? end : new Key(today.minusDays(1), Integer.MAX_VALUE);
+                    int updated = markChunk(conn, after, upper, today);
+                    if (end != null) {
+                        saveWatermark(conn, processedThrough, end);
+                    } else {
+                        saveWatermark(conn, today, null);
+                    }
+                    uow.commit();
+
+                    marked += updated;
+                    if (end == null) {
+                        return marked;
+                    }
+                    after = end;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error marking overdue loans (after " + marked + "): " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private Watermark loadWatermark(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_WATERMARK)) {
+            pstmt.setString(1, JOB_NAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Date cursorDueDate = rs.getDate("cursor_due_date");
+                Key cursor = cursorDueDate != null ? new Key(cursorDueDate.toLocalDate(), rs.getInt("cursor_loan_id")) : null;
+                return new Watermark(rs.getDate("processed_through").toLocalDate(), cursor);
+            }
+        }
+    }
+
+    private void saveWatermark(Connection conn, LocalDate processedThrough, Key cursor) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SAVE_WATERMARK)) {
+            pstmt.setString(1, JOB_NAME);
+            pstmt.setDate(2, Date.valueOf(processedThrough));
+            if (cursor != null) {
+                pstmt.setDate(3, Date.valueOf(cursor.dueDate));
+                pstmt.setInt(4, cursor.loanId);
+            } else {
+                pstmt.setNull(3, Types.DATE);
+                pstmt.setNull(4, Types.INTEGER);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    private LocalDate firstOpenDueDate(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_FIRST_OPEN_DUE_DATE);
+             ResultSet rs = pstmt.executeQuery()) {
+            Date first = rs.next() ? rs.getDate(1) : null;
+            return first != null ? first.toLocalDate() : null;
+        }
+    }
+
+    private Key findChunkEnd(Connection conn, Key after, LocalDate today) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_CHUNK_END)) {
+            pstmt.setDate(1, Date.valueOf(after.dueDate));
+            pstmt.setDate(2, Date.valueOf(after.dueDate));
+            pstmt.setInt(3, after.loanId);
+            pstmt.setDate(4, Date.valueOf(today));
+            pstmt.setInt(5, chunkSize - 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new Key(rs.getDate("due_date").toLocalDate(), rs.getInt("loan_id")) : null;
+            }
+        }
+    }
+
+    /**
+     * Mark the open ACTIVE loans with keys in (after, upper]
+     */
+    private int markChunk(Connection conn, Key after, Key upper, LocalDate today) throws SQLException {
+        LoanJournal journal = LoanJournal.getInstance();
+        if (journal.isOpen()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_OVERDUE_CHUNK)) {
+                bindRange(pstmt, 1, after, upper);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        LocalDate dueDate = rs.getDate("due_date").toLocalDate();
+                        BigDecimal fine = dailyFineRate.multiply(BigDecimal.valueOf(ChronoUnit.DAYS.between(dueDate, today)));
+                        journal.overdueMarked(rs.getInt("loan_id"), rs.getInt("book_id"), rs.getInt("member_id"), today, fine);
+                    }
+                }
+            }
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(MARK_OVERDUE_CHUNK)) {
+            pstmt.setDate(1, Date.valueOf(today));
+            pstmt.setBigDecimal(2, dailyFineRate);
+            bindRange(pstmt, 3, after, upper);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private static void bindRange(PreparedStatement pstmt, int first, Key after, Key upper) throws SQLException {
+        pstmt.setDate(first, Date.valueOf(after.dueDate));
+        pstmt.setDate(first + 1, Date.valueOf(after.dueDate));
+        pstmt.setInt(first + 2, after.loanId);
+        pstmt.setDate(first + 3, Date.valueOf(upper.dueDate));
+        pstmt.setDate(first + 4, Date.valueOf(upper.dueDate));
+        pstmt.setInt(first + 5, upper.loanId);
+    }
+
+    /**
+     * Position in idx_loan_due_date
+     */
+    private static final class Key {
+        private final LocalDate dueDate;
+        private final int loanId;
+
+        Key(LocalDate dueDate, int loanId) {
+            this.dueDate = dueDate;
+            this.loanId = loanId;
+        }
+    }
+
+    private static final class Watermark {
+        private final LocalDate processedThrough;
+        private final Key cursor;
+
+        Watermark(LocalDate processedThrough, Key cursor) {
+            this.processedThrough = processedThrough;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * Pass getNextKey() to the next page(...) call; it is null on the last page.
+ * Keyset pages seek on the sort index instead of using OFFSET, so page 10,000
+ * costs the same as page 1 and rows inserted meanwhile never shift the pages.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final Key nextKey;
+
+    public Page(List<T> items, Key nextKey) {
+        this.items = items;
+        this.nextKey = nextKey;
+    }
+
+    // Getters
+    public List<T> getItems() { return items; }
+    public Key getNextKey() { return nextKey; }
+
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+
+    /**
+     * Position after the last row of a page: its sort column value and primary key
+     */
+    public static class Key {
+        private final String sortValue;
+        private final int id;
+
+        public Key(String sortValue, int id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+
+        // Getters
+        public String getSortValue() { return sortValue; }
+        public int getId() { return id; }
+
+        @Override
+        public String toString() {
+            return "Key{" + sortValue + ", " + id + "}";
+        }
+    }
+}
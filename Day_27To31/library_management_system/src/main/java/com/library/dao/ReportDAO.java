@@ -0,0 +1,236 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregate queries for reports - counting happens in the database, not in Java lists
+ */
+public class ReportDAO implements ReportRepository {
+
+    // All dashboard counters in a single round trip
+    private static final String SELECT_LIBRARY_COUNTS =
+            "SELECT " +
+                    "(SELECT COUNT(*) FROM authors) AS total_authors, " +
+                    "(SELECT COUNT(*) FROM books) AS total_books, " +
+                    "(SELECT COALESCE(SUM(copies_available), 0) FROM books) AS total_copies, " +
+                    "(SELECT COUNT(*) FROM members) AS total_members, " +
+                    "(SELECT COUNT(*) FROM book_loans WHERE status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL) AS active_loans, " +
+                    "(SELECT COUNT(*) FROM book_loans WHERE status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL " +
+                    "  AND due_date < CURRENT_DATE) AS overdue_loans";
+
+    // Both served from indexes (idx_member_type) or a single scan, never materialized in Java
+    private static final String SELECT_MEMBERSHIP_COUNTS =
+            "SELECT membership_type, COUNT(*) AS member_count FROM members GROUP BY membership_type";
+    private static final String SELECT_AVAILABILITY_COUNTS =
+            "SELECT COALESCE(SUM(copies_available > 0), 0) AS available_books, " +
+                    "COALESCE(SUM(copies_available <= 0), 0) AS out_of_stock_books FROM books";
+
+    // Inventory invariants: availability never negative, and total = available + open loans for every book
+    private static final String SELECT_INVENTORY_CHECK =
+            "SELECT " +
+                    "SUM(b.copies_available < 0) AS negative_books, " +
+                    "SUM(b.total_copies - b.copies_available <> COALESCE(l.open_loans, 0)) AS mismatched_books, " +
+                    "COALESCE(SUM((b.total_copies - b.copies_available) - COALESCE(l.open_loans, 0)), 0) AS copies_drift " +
+                    "FROM books b LEFT JOIN (" +
+                    "SELECT book_id, COUNT(*) AS open_loans FROM book_loans " +
+                    "WHERE status IN ('ACTIVE', 'OVERDUE') AND return_date IS NULL GROUP BY book_id" +
+                    ") l ON l.book_id = b.book_id";
+
+    // Per-author book count and copies, one page of authors (by name) at a time: the derived table
+    // seeks the page on idx_author_name, then only those authors' books are grouped via idx_book_author
+    private static final String AUTHOR_BOOK_COUNTS_SELECT =
+            "SELECT a.author_id, a.name, COUNT(b.book_id) AS book_count, " +
+                    "COALESCE(SUM(b.copies_available), 0) AS total_copies FROM (";
+    private static final String AUTHOR_BOOK_COUNTS_GROUP =
+            ") a LEFT JOIN books b ON b.author_id = a.author_id " +
+                    "GROUP BY a.author_id, a.name ORDER BY a.name, a.author_id";
+    private static final String SELECT_AUTHOR_BOOK_COUNTS_FIRST_PAGE =
+            AUTHOR_BOOK_COUNTS_SELECT +
+                    "SELECT author_id, name FROM authors ORDER BY name, author_id LIMIT ?" +
+                    AUTHOR_BOOK_COUNTS_GROUP;
+    private static final String SELECT_AUTHOR_BOOK_COUNTS_PAGE_AFTER =
+            AUTHOR_BOOK_COUNTS_SELECT +
+                    "SELECT author_id, name FROM authors WHERE name >= ? AND (name > ? OR author_id > ?) " +
+                    "ORDER BY name, author_id LIMIT ?" +
+                    AUTHOR_BOOK_COUNTS_GROUP;
+
+    /**
+     * Library-wide counters, or null if the query fails
+     */
+    public LibraryCounts getLibraryCounts() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_LIBRARY_COUNTS);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return new LibraryCounts(
+                        rs.getInt("total_authors"),
+                        rs.getInt("total_books"),
+                        rs.getInt("total_copies"),
+                        rs.getInt("total_members"),
+                        rs.getInt("active_loans"),
+                        rs.getInt("overdue_loans")
+                );
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving library statistics: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    /**
+     * Number of members per membership type, or null if the query fails
+     */
+    public MembershipCounts getMembershipCounts() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_MEMBERSHIP_COUNTS);
+            rs = pstmt.executeQuery();
+
+            int basicMembers = 0;
+            int premiumMembers = 0;
+            while (rs.next()) {
+                if ("PREMIUM".equals(rs.getString("membership_type"))) {
+                    premiumMembers += rs.getInt("member_count");
+                } else {
+                    basicMembers += rs.getInt("member_count");
+                }
+            }
+            return new MembershipCounts(basicMembers, premiumMembers);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving membership counts: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    /**
+     * Number of books with copies on the shelf and without, or null if the query fails
+     */
+    public AvailabilityCounts getAvailabilityCounts() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_AVAILABILITY_COUNTS);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return new AvailabilityCounts(
+                        rs.getInt("available_books"),
+                        rs.getInt("out_of_stock_books")
+                );
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving availability counts: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    /**
+     * Check books.copies_available against the loans table, or null if the query fails
+     */
+    public InventoryCheck checkInventory() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_INVENTORY_CHECK);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return new InventoryCheck(
+                        rs.getInt("negative_books"),
+                        rs.getInt("mismatched_books"),
+                        rs.getLong("copies_drift")
+                );
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checking inventory: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    /**
+     * Book count and total copies per author, authors ordered by name, starting after the given
+     * key (null for the first page). Each page is one grouped query over that page's books only.
+     */
+    public Page<AuthorBookCount> getAuthorBookCountsPage(Page.Key after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        List<AuthorBookCount> rows = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            if (after == null) {
+                pstmt = conn.prepareStatement(SELECT_AUTHOR_BOOK_COUNTS_FIRST_PAGE);
+                pstmt.setInt(1, limit + 1);
+            } else {
+                pstmt = conn.prepareStatement(SELECT_AUTHOR_BOOK_COUNTS_PAGE_AFTER);
+                pstmt.setString(1, after.getSortValue());
+                pstmt.setString(2, after.getSortValue());
+                pstmt.setInt(3, after.getId());
+                pstmt.setInt(4, limit + 1);
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                rows.add(new AuthorBookCount(
+                        rs.getInt("author_id"),
+                        rs.getString("name"),
+                        rs.getInt("book_count"),
+                        rs.getLong("total_copies")
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving author-wise book counts: " + e.getMessage());
+        } finally {
+            closeResources(conn, pstmt, rs);
+        }
+
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        rows.remove(limit);
+        AuthorBookCount last = rows.get(limit - 1);
+        return new Page<>(rows, new Page.Key(last.getAuthorName(), last.getAuthorId()));
+    }
+
+    private void closeResources(Connection conn, PreparedStatement pstmt, ResultSet rs) {
+        try {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing resources: " + e.getMessage());
+        }
+    }
+}
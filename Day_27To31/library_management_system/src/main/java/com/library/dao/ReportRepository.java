@@ -0,0 +1,137 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+/**
+ * Aggregates behind the reports and dashboard. ReportDAO computes them in MySQL,
+ * InMemoryReportRepository from the in-memory tables and their indexes.
+ */
+public interface ReportRepository {
+
+    /**
+     * Library-wide counters, or null on failure
+     */
+    LibraryCounts getLibraryCounts();
+
+    /**
+     * Members per membership type, or null on failure
+     */
+    MembershipCounts getMembershipCounts();
+
+    /**
+     * Books with and without a copy on the shelf, or null on failure
+     */
+    AvailabilityCounts getAvailabilityCounts();
+
+    /**
+     * Check copies available against open loans, or null on failure
+     */
+    InventoryCheck checkInventory();
+
+    /**
+     * Book count and total copies per author, authors ordered by name, starting after the given
+     * key (null for the first page)
+     */
+    Page<AuthorBookCount> getAuthorBookCountsPage(Page.Key after, int limit);
+
+    class LibraryCounts {
+        private final int totalAuthors;
+        private final int totalBooks;
+        private final int totalCopies;
+        private final int totalMembers;
+        private final int activeLoans;
+        private final int overdueLoans;
+
+        public LibraryCounts(int totalAuthors, int totalBooks, int totalCopies,
+                             int totalMembers, int activeLoans, int overdueLoans) {
+            this.totalAuthors = totalAuthors;
+            this.totalBooks = totalBooks;
+            this.totalCopies = totalCopies;
+            this.totalMembers = totalMembers;
+            this.activeLoans = activeLoans;
+            this.overdueLoans = overdueLoans;
+        }
+
+        // Getters
+        public int getTotalAuthors() { return totalAuthors; }
+        public int getTotalBooks() { return totalBooks; }
+        public int getTotalCopies() { return totalCopies; }
+        public int getTotalMembers() { return totalMembers; }
+        public int getActiveLoans() { return activeLoans; }
+        public int getOverdueLoans() { return overdueLoans; }
+    }
+
+    class MembershipCounts {
+        private final int basicMembers;
+        private final int premiumMembers;
+
+        public MembershipCounts(int basicMembers, int premiumMembers) {
+            this.basicMembers = basicMembers;
+            this.premiumMembers = premiumMembers;
+        }
+
+        // Getters
+        public int getBasicMembers() { return basicMembers; }
+        public int getPremiumMembers() { return premiumMembers; }
+    }
+
+    class AvailabilityCounts {
+        private final int availableBooks;
+        private final int outOfStockBooks;
+
+        public AvailabilityCounts(int availableBooks, int outOfStockBooks) {
+            this.availableBooks = availableBooks;
+            this.outOfStockBooks = outOfStockBooks;
+        }
+
+        // Getters
+        public int getAvailableBooks() { return availableBooks; }
+        public int getOutOfStockBooks() { return outOfStockBooks; }
+    }
+
+    class AuthorBookCount {
+        private final int authorId;
+        private final String authorName;
+        private final int bookCount;
+        private final long totalCopies;
+
+        public AuthorBookCount(int authorId, String authorName, int bookCount, long totalCopies) {
+            this.authorId = authorId;
+            this.authorName = authorName;
+            this.bookCount = bookCount;
+            this.totalCopies = totalCopies;
+        }
+
+        // Getters
+        public int getAuthorId() { return authorId; }
+        public String getAuthorName() { return authorName; }
+        public int getBookCount() { return bookCount; }
+        public long getTotalCopies() { return totalCopies; }
+    }
+
+    class InventoryCheck {
+        private final int negativeBooks;
+        private final int mismatchedBooks;
+        private final long copiesDrift;
+
+        public InventoryCheck(int negativeBooks, int mismatchedBooks, long copiesDrift) {
+            this.negativeBooks = negativeBooks;
+            this.mismatchedBooks = mismatchedBooks;
+            this.copiesDrift = copiesDrift;
+        }
+
+        // Getters
+        public int getNegativeBooks() { return negativeBooks; }
+        public int getMismatchedBooks() { return mismatchedBooks; }
+        /** Positive: more copies out than loans explain (double decrement); negative: copies leaked back */
+        public long getCopiesDrift() { return copiesDrift; }
+
+        public boolean isConsistent() {
+            return negativeBooks == 0 && mismatchedBooks == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Inventory: %d book(s) with negative availability, %d book(s) where " +
+                    "total != available + open loans (net drift %d)", negativeBooks, mismatchedBooks, copiesDrift);
+        }
+    }
+}
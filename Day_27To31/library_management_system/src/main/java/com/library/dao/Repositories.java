@@ -0,0 +1,70 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+
+import java.util.Locale;
+
+/**
+ * Hands out the repositories for the configured storage backend.
+ *
+ * library.storage=mysql (the default) gives the JDBC DAOs, with the read-through caches for
+ * authors, books and members. library.storage=memory gives repositories over one shared
+ * InMemoryStore: same constraints, nothing persisted, no database connection needed.
+ */
+public final class Repositories {
+
+    public enum Storage {
+        MYSQL, MEMORY
+    }
+
+    private static final Storage STORAGE = parseStorage(LibraryConfig.getString("library.storage", "mysql"));
+
+    private Repositories() {}
+
+    public static Storage getStorage() {
+        return STORAGE;
+    }
+
+    public static boolean isInMemory() {
+        return STORAGE == Storage.MEMORY;
+    }
+
+    public static AuthorRepository authors() {
+        return isInMemory() ? Memory.AUTHORS : new CachingAuthorDAO();
+    }
+
+    public static BookRepository books() {
+        return isInMemory() ? Memory.BOOKS : new CachingBookDAO();
+    }
+
+    public static MemberRepository members() {
+        return isInMemory() ? Memory.MEMBERS : new CachingMemberDAO();
+    }
+
+    public static LoanRepository loans() {
+        return isInMemory() ? Memory.LOANS : new BookLoanDAO();
+    }
+
+    public static ReportRepository reports() {
+        return isInMemory() ? Memory.REPORTS : new ReportDAO();
+    }
+
+    private static Storage parseStorage(String value) {
+        try {
+            return Storage.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid value for library.storage: " + value + " (using mysql)");
+            return Storage.MYSQL;
+        }
+    }
+
+    // Created on first use, so MySQL mode never allocates the in-memory tables
+    private static final class Memory {
+        private static final InMemoryStore STORE = new InMemoryStore();
+        private static final AuthorRepository AUTHORS = new InMemoryAuthorRepository(STORE);
+        private static final BookRepository BOOKS = new InMemoryBookRepository(STORE);
+        private static final MemberRepository MEMBERS = new InMemoryMemberRepository(STORE);
+        private static final LoanRepository LOANS = new InMemoryLoanRepository(STORE);
+        private static final ReportRepository REPORTS = new InMemoryReportRepository(STORE);
+    }
+}
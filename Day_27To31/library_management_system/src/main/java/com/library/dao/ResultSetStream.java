@@ -0,0 +1,87 @@
+package Day_27To31.library_management_system.src.main.java.com.library.dao;
+
+import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy Stream over a query result. Rows are mapped one at a time as the stream is consumed,
+ * and the result set, statement and connection are closed when the stream is closed, so
+ * callers must use try-with-resources.
+ */
+final class ResultSetStream {
+    // Rows per round trip; the connection URL enables cursor fetch so only this many are buffered
+    static final int FETCH_SIZE = LibraryConfig.getInt("library.stream.fetchSize", 500);
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private ResultSetStream() {}
+
+    /**
+     * Run a query and stream its rows. On failure the error is logged and an empty stream returned.
+     */
+    static <T> Stream<T> query(String sql, String description, RowMapper<T> mapper) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(FETCH_SIZE);
+            rs = pstmt.executeQuery();
+            return of(conn, pstmt, rs, mapper);
+        } catch (SQLException e) {
+            System.err.println("Error streaming " + description + ": " + e.getMessage());
+            close(conn, pstmt, rs);
+            return Stream.empty();
+        }
+    }
+
+    static <T> Stream<T> of(Connection conn, PreparedStatement pstmt, ResultSet rs, RowMapper<T> mapper) {
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean done;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (done) return false;
+                try {
+                    if (!rs.next()) {
+                        done = true;
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    System.err.println("Error reading rows: " + e.getMessage());
+                    done = true;
+                    return false;
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> close(conn, pstmt, rs));
+    }
+
+    static void close(Connection conn, PreparedStatement pstmt, ResultSet rs) {
+        try {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing resources: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package Day_27To31.library_management_system.src.main.java.com.library.service;
+
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.util.ConcurrentIntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory inverted index over book title, ISBN and author name.
+ *
+ * Terms are lower-cased alphanumeric tokens kept in a sorted map, so a query token
+ * matches whole terms and, at a lower score, any term it is a prefix of. Every query
+ * token must match (AND); results are ranked by summed field weights.
+ * rebuild fills a fresh index and swaps it in, so searches meanwhile see the old one whole.
+ */
+public final class BookSearchIndex {
+    private static final BookSearchIndex INSTANCE = new BookSearchIndex();
+
+    // Field weights
+    private static final int ISBN_WEIGHT = 8;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+
+    private static final double PREFIX_FACTOR = 0.5;
+    private static final int MAX_PREFIX_TERMS = 200;
+
+    // Replaced whole by rebuild, so a search never sees a half-built index
+    private volatile Contents contents = new Contents();
+    private volatile boolean built;
+
+    private BookSearchIndex() {}
+
+    public static BookSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * A separate, empty index that the application never sees, e.g. for checks on sample books
+     */
+    public static BookSearchIndex newStandalone() {
+        return new BookSearchIndex();
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public int size() {
+        return contents.documents.size();
+    }
+
+    /**
+     * Replace the whole index with the given books
+     * @return number of books indexed
+     */
+    public synchronized int rebuild(Iterable<Book> books) {
+        Contents rebuilt = new Contents();
+        int count = 0;
+        for (Book book : books) {
+            add(rebuilt, book);
+            count++;
+        }
+        contents = rebuilt;
+        built = true;
+        return count;
+    }
+
+    /**
+     * Add or re-index a book
+     */
+    public synchronized void index(Book book) {
+        Contents current = contents;
+        remove(current, book.getBookId());
+        add(current, book);
+    }
+
+    public synchronized void remove(int bookId) {
+        remove(contents, bookId);
+    }
+
+    private static void remove(Contents contents, int bookId) {
+        Document old = contents.documents.remove(bookId);
+        if (old == null) return;
+        for (String term : old.termWeights.keySet()) {
+            Map<Integer, Integer> posting = contents.postings.get(term);
+            if (posting != null) {
+                posting.remove(bookId);
+                if (posting.isEmpty()) contents.postings.remove(term, posting);
+            }
+        }
+    }
+
+    /**
+     * Author names are denormalized into the index, so a rename re-indexes that author's books
+     */
+    public synchronized void renameAuthor(int authorId, String newName) {
+        Contents current = contents;
+        List<Document> affected = new ArrayList<>();
+        current.documents.forEach((bookId, doc) -> {
+            if (doc.authorId == authorId) affected.add(doc);
+        });
+        for (Document doc : affected) {
+            remove(current, doc.bookId);
+            add(current, doc.bookId, doc.title, doc.isbn, authorId, newName);
+        }
+    }
+
+    /**
+     * Book ids matching every token of the query, best match first
+     */
+    public List<Integer> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) return Collections.emptyList();
+
+        Contents current = contents;
+        Map<Integer, Double> scores = matchAll(current, queryTokens);
+        if (queryTokens.size() > 1 && isIsbnQuery(query)) {
+            // A split ISBN ("978-0-13...", "978 0134...") also matches whole, as an alternative to its
+            // fragments, against the digits-only form every ISBN is indexed under
+            scoreToken(current, normalizeIsbn(query)).forEach((bookId, s) -> scores.merge(bookId, s, Math::max));
+        }
+        if (scores.isEmpty()) return Collections.emptyList();
+
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int byScore = Double.compare(b.getValue(), a.getValue());
+            if (byScore != 0) return byScore;
+            Document da = current.documents.get(a.getKey());
+            Document db = current.documents.get(b.getKey());
+            String ta = da != null ? da.title : "";
+            String tb = db != null ? db.title : "";
+            return ta.compareToIgnoreCase(tb);
+        });
+
+        List<Integer> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Books matched by every token (AND), with summed scores
+     */
+    private static Map<Integer, Double> matchAll(Contents contents, List<String> tokens) {
+        Map<Integer, Double> scores = null;
+        for (String token : tokens) {
+            Map<Integer, Double> tokenScores = scoreToken(contents, token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // AND: keep only books matched by every token so far
+                Map<Integer, Double> merged = new HashMap<>();
+                for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                    Double s = tokenScores.get(e.getKey());
+                    if (s != null) merged.put(e.getKey(), e.getValue() + s);
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) break;
+        }
+        return scores;
+    }
+
+    private static Map<Integer, Double> scoreToken(Contents contents, String token) {
+        Map<Integer, Double> scores = new HashMap<>();
+
+        Map<Integer, Integer> exact = contents.postings.get(token);
+        if (exact != null) {
+            exact.forEach((bookId, weight) -> scores.merge(bookId, (double) weight, Math::max));
+        }
+
+        // Prefix matches: every term in [token, token + '\uFFFF')
+        NavigableMap<String, Map<Integer, Integer>> range =
+                contents.postings.subMap(token, false, token + Character.MAX_VALUE, false);
+        int expanded = 0;
+        for (Map<Integer, Integer> posting : range.values()) {
+            if (++expanded > MAX_PREFIX_TERMS) break;
+            posting.forEach((bookId, weight) -> scores.merge(bookId, weight * PREFIX_FACTOR, Math::max));
+        }
+        return scores;
+    }
+
+    private static void add(Contents contents, Book book) {
+        add(contents, book.getBookId(), book.getTitle(), book.getIsbn(), book.getAuthorId(), book.getAuthorName());
+    }
+
+    private static void add(Contents contents, int bookId, String title, String isbn, int authorId, String authorName) {
+        Map<String, Integer> termWeights = new HashMap<>();
+        for (String t : tokenize(title)) termWeights.merge(t, TITLE_WEIGHT, Integer::sum);
+        for (String t : tokenize(authorName)) termWeights.merge(t, AUTHOR_WEIGHT, Integer::sum);
+        for (String t : tokenize(isbn)) termWeights.merge(t, ISBN_WEIGHT, Integer::sum);
+        String compactIsbn = normalizeIsbn(isbn);
+        if (!compactIsbn.isEmpty()) termWeights.merge(compactIsbn, ISBN_WEIGHT, Math::max);
+
+        contents.documents.put(bookId, new Document(bookId, title, isbn, authorId, authorName, termWeights));
+        for (Map.Entry<String, Integer> e : termWeights.entrySet()) {
+            contents.postings.computeIfAbsent(e.getKey(), k -> new ConcurrentHashMap<>()).put(bookId, e.getValue());
+        }
+    }
+
+    /**
+     * Lower-cased alphanumeric runs
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean alnum = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (alnum && start < 0) {
+                start = i;
+            } else if (!alnum && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isIsbnQuery(String query) {
+        return query.trim().matches("[0-9xX][0-9xX\\- ]*");
+    }
+
+    private static String normalizeIsbn(String isbn) {
+        if (isbn == null) return "";
+        StringBuilder sb = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = Character.toLowerCase(isbn.charAt(i));
+            if (Character.isDigit(c) || c == 'x') sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static final class Contents {
+        // term -> (bookId -> summed field weight of that term in the book)
+        private final ConcurrentSkipListMap<String, Map<Integer, Integer>> postings = new ConcurrentSkipListMap<>();
+        private final ConcurrentIntObjectMap<Document> documents = new ConcurrentIntObjectMap<>();
+    }
+
+    private static final class Document {
+        private final int bookId;
+        private final String title;
+        private final String isbn;
+        private final int authorId;
+        private final String authorName;
+        private final Map<String, Integer> termWeights;
+
+        Document(int bookId, String title, String isbn, int authorId, String authorName,
+                 Map<String, Integer> termWeights) {
+            this.bookId = bookId;
+            this.title = title != null ? title : "";
+            this.isbn = isbn;
+            this.authorId = authorId;
+            this.authorName = authorName;
+            this.termWeights = termWeights;
+        }
+    }
+}
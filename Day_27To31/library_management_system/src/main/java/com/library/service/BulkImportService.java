@@ -0,0 +1,287 @@
+package Day_27To31.library_management_system.src.main.java.com.library.service;
+
+import Day_27To31.library_management_system.src.main.java.com.library.dao.AuthorRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BulkResult;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.MemberRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.Repositories;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * CSV/TSV loader on top of the DAOs' bulk insert APIs.
+ *
+ * The first line is a header naming the columns (any order, case-insensitive); files ending
+ * in .tsv are tab separated, everything else comma separated with optional double quotes.
+ * Rows are sent in chunks, each committed on its own. After every chunk the last committed
+ * line number is written to "&lt;file&gt;.progress", so re-running an interrupted import
+ * continues after that line. Rows that cannot be parsed or whose chunk failed are copied to
+ * "&lt;file&gt;.rejects" with the reason.
+ *
+ * Columns:
+ * <pre>
+ * authors: name, email, birth_year, biography
+ * books:   title, isbn, publication_year, price, copies, author_id
+ * members: name, email, phone, join_date (yyyy-MM-dd), membership_type (BASIC/PREMIUM)
+ * </pre>
+ */
+public class BulkImportService {
+    private static final int CHUNK_SIZE = LibraryConfig.getInt("library.bulk.chunkSize", 1000);
+
+    private final AuthorRepository authorDAO;
+    private final BookRepository bookDAO;
+    private final MemberRepository memberDAO;
+
+    public BulkImportService() {
+        this.authorDAO = Repositories.authors();
+        this.bookDAO = Repositories.books();
+        this.memberDAO = Repositories.members();
+    }
+
+    public BulkResult importAuthors(String file) throws IOException {
+        return importFile(Paths.get(file), row -> new Author(
+                row.required("name"),
+                row.optional("email"),
+                row.optionalInt("birth_year"),
+                row.optional("biography")
+        ), authorDAO::createAuthors, inserted -> {});
+    }
+
+    public BulkResult importBooks(String file) throws IOException {
+        return importFile(Paths.get(file), row -> {
+            int copies = row.optionalInt("copies") != null ? row.optionalInt("copies") : 1;
+            if (copies < 0) throw new IllegalArgumentException("copies must not be negative");
+            return new Book(
+                    row.required("title"),
+                    row.optional("isbn"),
+                    row.optionalInt("publication_year"),
+                    row.optional("price") != null ? new BigDecimal(row.optional("price")) : null,
+                    copies,
+                    Integer.parseInt(row.required("author_id"))
+            );
+        }, bookDAO::createBooks, this::indexImportedBooks);
+    }
+
+    public BulkResult importMembers(String file) throws IOException {
+        return importFile(Paths.get(file), row -> {
+            String type = row.optional("membership_type");
+            Member member = new Member(
+                    row.required("name"),
+                    row.required("email"),
+                    row.optional("phone"),
+                    type != null ? Member.MembershipType.valueOf(type.toUpperCase(Locale.ROOT)) : Member.MembershipType.BASIC
+            );
+            String joinDate = row.optional("join_date");
+            if (joinDate != null) member.setJoinDate(LocalDate.parse(joinDate));
+            return member;
+        }, memberDAO::createMembers, inserted -> {});
+    }
+
+    /**
+     * Imported books become searchable once their chunk has committed
+     */
+    private void indexImportedBooks(List<Book> books) {
+        BookSearchIndex index = BookSearchIndex.getInstance();
+        if (!index.isBuilt()) return;
+
+        for (Book book : books) {
+            if (book.getBookId() == 0) continue;
+            Author author = authorDAO.getAuthorById(book.getAuthorId());
+            if (author != null) book.setAuthorName(author.getName());
+            index.index(book);
+        }
+    }
+
+    private <T> BulkResult importFile(Path file, Function<Row, T> parser,
+                                      Function<List<T>, BulkResult> loader,
+                                      Consumer<List<T>> afterChunk) throws IOException {
+        Path progressFile = Paths.get(file + ".progress");
+        Path rejectsFile = Paths.get(file + ".rejects");
+        char delimiter = file.toString().toLowerCase(Locale.ROOT).endsWith(".tsv") ? '\t' : ',';
+
+        long resumeAfter = readProgress(progressFile);
+        if (resumeAfter > 0) {
+            System.out.println("Resuming " + file.getFileName() + " after line " + resumeAfter);
+        }
+
+        BulkResult total = new BulkResult();
+        long started = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            String headerLine = reader.readLine();
+            Map<String, Integer> header = new HashMap<>();
+            List<String> headerFields = split(stripBom(headerLine != null ? headerLine : ""), delimiter);
+            for (int i = 0; i < headerFields.size(); i++) {
+                header.put(headerFields.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> chunkLines = new ArrayList<>(CHUNK_SIZE);
+            long lineNumber = 1;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= resumeAfter || line.trim().isEmpty()) continue;
+
+                try {
+                    chunk.add(parser.apply(new Row(header, split(line, delimiter))));
+                    chunkLines.add(line);
+                } catch (RuntimeException e) {
+                    reject(rejects, lineNumber, line, e.getMessage());
+                    total.addFailed(1);
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    flushChunk(chunk, chunkLines, lineNumber, loader, afterChunk, total, rejects, progressFile);
+                }
+            }
+            flushChunk(chunk, chunkLines, lineNumber, loader, afterChunk, total, rejects, progressFile);
+        }
+
+        // Finished: the next run of the same file starts from the top again
+        Files.deleteIfExists(progressFile);
+        if (Files.size(rejectsFile) == 0) {
+            Files.deleteIfExists(rejectsFile);
+        }
+
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        System.out.printf("Imported %s in %.1fs (%.0f rows/s end to end)%n",
+                file.getFileName(), seconds, seconds == 0 ? 0 : total.getInserted() / seconds);
+        return total;
+    }
+
+    private <T> void flushChunk(List<T> chunk, List<String> chunkLines, long lastLine,
+                                Function<List<T>, BulkResult> loader,
+                                Consumer<List<T>> afterChunk,
+                                BulkResult total, BufferedWriter rejects, Path progressFile) throws IOException {
+        if (!chunk.isEmpty()) {
+            // The whole chunk is one DAO chunk, so it commits or rolls back as a unit
+            BulkResult result = loader.apply(chunk);
+            total.add(result);
+            if (result.getFailed() > 0) {
+                for (String failedLine : chunkLines) {
+                    reject(rejects, -1, failedLine, "chunk ending at line " + lastLine + " failed");
+                }
+            } else {
+                afterChunk.accept(new ArrayList<>(chunk));
+            }
+            System.out.println("  ... line " + lastLine + ": " + total);
+        }
+        rejects.flush();
+        writeProgress(progressFile, lastLine);
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private static void reject(BufferedWriter rejects, long lineNumber, String line, String reason) throws IOException {
+        rejects.write((lineNumber > 0 ? "line " + lineNumber + ": " : "") + reason + "\t" + line);
+        rejects.newLine();
+    }
+
+    private static long readProgress(Path progressFile) throws IOException {
+        if (!Files.exists(progressFile)) return 0;
+        String content = new String(Files.readAllBytes(progressFile), StandardCharsets.UTF_8).trim();
+        return content.isEmpty() ? 0 : Long.parseLong(content);
+    }
+
+    // Written to a temp file and moved into place so a crash never leaves a torn progress file
+    private static void writeProgress(Path progressFile, long lineNumber) throws IOException {
+        Path tmp = Paths.get(progressFile + ".tmp");
+        Files.write(tmp, Long.toString(lineNumber).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, progressFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    /**
+     * Split one record. Double-quoted fields may contain the delimiter and "" for a quote.
+     */
+    static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * One parsed record, with fields looked up by header name
+     */
+    private static final class Row {
+        private final Map<String, Integer> header;
+        private final List<String> fields;
+
+        Row(Map<String, Integer> header, List<String> fields) {
+            this.header = header;
+            this.fields = fields;
+        }
+
+        String optional(String column) {
+            Integer index = header.get(column);
+            if (index == null || index >= fields.size()) return null;
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String required(String column) {
+            String value = optional(column);
+            if (value == null) throw new IllegalArgumentException("missing " + column);
+            return value;
+        }
+
+        Integer optionalInt(String column) {
+            String value = optional(column);
+            return value != null ? Integer.valueOf(value) : null;
+        }
+    }
+}
@@ -1,28 +1,57 @@
 package Day_27To31.library_management_system.src.main.java.com.library.service;
 
-import Day_27To31.library_management_system.src.main.java.com.library.dao.AuthorDAO;
-import Day_27To31.library_management_system.src.main.java.com.library.dao.BookDAO;
-import Day_27To31.library_management_system.src.main.java.com.library.dao.BookLoanDAO;
-import Day_27To31.library_management_system.src.main.java.com.library.dao.MemberDAO;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.ActiveLoanCounter;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.AuthorRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.LoanRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.MemberRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.ReportRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.Repositories;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
 import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LruCache;
+import Day_27To31.library_management_system.src.main.java.com.library.util.StripedLocks;
+import Day_27To31.library_management_system.src.main.java.com.library.util.TransactionExecutor;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class LibraryService {
-    private AuthorDAO authorDAO;
-    private BookDAO bookDAO;
-    private MemberDAO memberDAO;
-    private BookLoanDAO bookLoanDAO;
+    private static final String STATISTICS_KEY = "library";
+    // Report summaries are aggregate queries; serving them for a few seconds makes repeated views free
+    private static final long SUMMARY_TTL_MS = LibraryConfig.getLong("library.statistics.cacheTtlMs", 5_000);
+    private static final LruCache<String, LibraryStatistics> STATISTICS_CACHE = new LruCache<>("statistics", 1, SUMMARY_TTL_MS);
+    private static final LruCache<String, MembershipDistribution> MEMBERSHIP_CACHE = new LruCache<>("membership", 1, SUMMARY_TTL_MS);
+    private static final LruCache<String, AvailabilitySummary> AVAILABILITY_CACHE = new LruCache<>("availability", 1, SUMMARY_TTL_MS);
+    private static final int SEARCH_RESULT_LIMIT = LibraryConfig.getInt("library.search.maxResults", 50);
+    // Checkouts and returns of one book, or by one member, queue here rather than on MySQL row locks.
+    // Shared by all service instances; library.locks.enabled=false lets them all race into the database.
+    private static final StripedLocks CHECKOUT_LOCKS = LibraryConfig.getBoolean("library.locks.enabled", true)
+            ? new StripedLocks("Checkout",
+                    LibraryConfig.getInt("library.locks.stripes", 1024),
+                    LibraryConfig.getBoolean("library.locks.fair", false),
+                    LibraryConfig.getLong("library.locks.timeoutMs", 5_000))
+            : null;
+
+    private AuthorRepository authorDAO;
+    private BookRepository bookDAO;
+    private MemberRepository memberDAO;
+    private LoanRepository bookLoanDAO;
+    private ReportRepository reportDAO;
 
     public LibraryService() {
-        this.authorDAO = new AuthorDAO();
-        this.bookDAO = new BookDAO();
-        this.memberDAO = new MemberDAO();
-        this.bookLoanDAO = new BookLoanDAO();
+        this.authorDAO = Repositories.authors();
+        this.bookDAO = Repositories.books();
+        this.memberDAO = Repositories.members();
+        this.bookLoanDAO = Repositories.loans();
+        this.reportDAO = Repositories.reports();
     }
 
     public boolean registerMember(Member member) {
@@ -42,42 +71,95 @@ public class LibraryService {
     }
 
     public boolean issueBook(int bookId, int memberId) {
-        // Get member details for loan duration
-        Member member = memberDAO.getMemberById(memberId);
-        if (member == null) {
-            System.out.println("Member not found");
-            return false;
+        // Taken before the transaction, so a clerk waiting on a hot title holds no connection
+        try (StripedLocks.Held held = lockCheckout(bookId, memberId)) {
+            if (held == null) {
+                System.out.println("Book or member is busy with another checkout - please try again");
+                return false;
+            }
+            // A deadlock or lock wait timeout reruns the whole checkout after a short backoff
+            return TransactionExecutor.execute("issueBook", () -> issueBookLocked(bookId, memberId));
         }
+    }
 
-        // Get book details
-        Book book = bookDAO.getBookById(bookId);
-        if (book == null) {
-            System.out.println("Book not found");
+    private boolean issueBookLocked(int bookId, int memberId) {
+        // One connection and one transaction (the executor's) for all checks and the loan insert
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            // Get member details for loan duration
+            Member member = memberDAO.getMemberById(memberId);
+            if (member == null) {
+                System.out.println("Member not found");
+                return false;
+            }
+
+            // Get book details
+            Book book = bookDAO.getBookById(bookId);
+            if (book == null) {
+                System.out.println("Book not found");
+                return false;
+            }
+
+            // Check if book is available
+            if (book.getCopiesAvailable() <= 0) {
+                System.out.println("Book is not available");
+                return false;
+            }
+
+            // Check member's current loan count against limit (in-memory, no COUNT(*) query)
+            int currentLoans = ActiveLoanCounter.getInstance().getActiveLoanCount(memberId);
+            int maxAllowed = member.getMaxBooksAllowed();
+
+            if (currentLoans >= maxAllowed) {
+                System.out.println("Member has reached maximum loan limit (" + maxAllowed + " books)");
+                return false;
+            }
+
+            // Issue book with appropriate loan duration
+            int loanDuration = member.getLoanDurationDays();
+            if (!bookLoanDAO.issueBook(bookId, memberId, loanDuration, maxAllowed)) {
+                return false;
+            }
+
+            uow.commit();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error issuing book: " + e.getMessage());
             return false;
         }
+    }
 
-        // Check if book is available
-        if (book.getCopiesAvailable() <= 0) {
-            System.out.println("Book is not available");
-            return false;
+    public boolean returnBook(int loanId) {
+        BookLoan loan = CHECKOUT_LOCKS != null ? bookLoanDAO.getLoanById(loanId) : null;
+        if (loan == null) {
+            // Nothing to serialize on (or locking is off); the DAO reports an unknown loan
+            return TransactionExecutor.execute("returnBook", () -> bookLoanDAO.returnBook(loanId));
         }
-
-        // Check member's current loan count against limit
-        int currentLoans = memberDAO.getActiveLoanCount(memberId);
-        int maxAllowed = member.getMaxBooksAllowed();
-
-        if (currentLoans >= maxAllowed) {
-            System.out.println("Member has reached maximum loan limit (" + maxAllowed + " books)");
-            return false;
+        try (StripedLocks.Held held = lockCheckout(loan.getBookId(), loan.getMemberId())) {
+            if (held == null) {
+                System.out.println("Book or member is busy with another checkout - please try again");
+                return false;
+            }
+            return TransactionExecutor.execute("returnBook", () -> bookLoanDAO.returnBook(loanId));
         }
+    }
 
-        // Issue book with appropriate loan duration
-        int loanDuration = member.getLoanDurationDays();
-        return bookLoanDAO.issueBook(bookId, memberId, loanDuration);
+    /**
+     * Book and member stripes for a checkout or return; a no-op handle when locking is off
+     * @return null if the stripes could not be had within library.locks.timeoutMs
+     */
+    private static StripedLocks.Held lockCheckout(int bookId, int memberId) {
+        if (CHECKOUT_LOCKS == null) {
+            return StripedLocks.Held.NONE;
+        }
+        // Books and members share the table; the low bit keeps book 7 and member 7 apart
+        return CHECKOUT_LOCKS.lock((long) bookId << 1, ((long) memberId << 1) | 1);
     }
 
-    public boolean returnBook(int loanId) {
-        return bookLoanDAO.returnBook(loanId);
+    /**
+     * Checkout lock counters, or null when locking is off
+     */
+    public static String getCheckoutLockStats() {
+        return CHECKOUT_LOCKS != null ? CHECKOUT_LOCKS.toString() : null;
     }
 
     public MemberLoanSummary getMemberLoanSummary(int memberId) {
@@ -91,39 +173,139 @@ public class LibraryService {
     public DailyOperationResult processDailyOperations() {
         System.out.println("Running daily operations...");
 
-        int overdueUpdated = bookLoanDAO.updateOverdueLoans();
-        List<BookLoan> currentOverdue = bookLoanDAO.getOverdueLoans();
-
-        BigDecimal totalFines = currentOverdue.stream()
-                .map(BookLoan::getFineAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int overdueUpdated = OverdueMaintenanceJob.getInstance().runNow();
 
-        return new DailyOperationResult(overdueUpdated, currentOverdue.size(), totalFines);
+        // Count and fines are summed in SQL; no loan rows are loaded
+        LoanRepository.OverdueTotals totals = bookLoanDAO.getOverdueTotals();
+        if (totals == null) {
+            return new DailyOperationResult(overdueUpdated, 0, BigDecimal.ZERO);
+        }
+        return new DailyOperationResult(overdueUpdated, totals.getOverdueLoans(), totals.getTotalFines());
     }
 
+    /**
+     * Ranked catalog search over title, ISBN and author name (prefixes match too).
+     * An empty search term lists the whole catalog.
+     */
     public List<Book> searchBooks(String searchTerm) {
-        // This would involve more complex search logic
-        // For now, returning all books (implement proper search in Phase 3)
-        return bookDAO.getAllBooks();
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return bookDAO.getAllBooks();
+        }
+
+        BookSearchIndex index = BookSearchIndex.getInstance();
+        if (!index.isBuilt()) {
+            buildSearchIndex();
+        }
+
+        // The index only ranks ids; books are resolved through the cache so copy counts are current
+        List<Book> results = new ArrayList<>();
+        for (int bookId : index.search(searchTerm, SEARCH_RESULT_LIMIT)) {
+            Book book = bookDAO.getBookById(bookId);
+            if (book != null) {
+                results.add(book);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * (Re)build the search index from the books table
+     * @return number of books indexed
+     */
+    public int buildSearchIndex() {
+        try (Stream<Book> books = bookDAO.streamAllBooks()) {
+            return BookSearchIndex.getInstance().rebuild(books::iterator);
+        }
+    }
+
+    public boolean addBook(Book book) {
+        if (!bookDAO.createBook(book)) {
+            return false;
+        }
+        if (book.getAuthorName() == null) {
+            Author author = authorDAO.getAuthorById(book.getAuthorId());
+            if (author != null) book.setAuthorName(author.getName());
+        }
+        UnitOfWork.afterCommit(() -> BookSearchIndex.getInstance().index(book));
+        return true;
+    }
+
+    public boolean updateBook(Book book) {
+        if (!bookDAO.updateBook(book)) {
+            return false;
+        }
+        Book updated = bookDAO.getBookById(book.getBookId());
+        if (updated != null) {
+            UnitOfWork.afterCommit(() -> BookSearchIndex.getInstance().index(updated));
+        }
+        return true;
+    }
+
+    public boolean deleteBook(int bookId) {
+        if (!bookDAO.deleteBook(bookId)) {
+            return false;
+        }
+        UnitOfWork.afterCommit(() -> BookSearchIndex.getInstance().remove(bookId));
+        return true;
     }
 
+    public boolean updateAuthor(Author author) {
+        if (!authorDAO.updateAuthor(author)) {
+            return false;
+        }
+        UnitOfWork.afterCommit(() -> BookSearchIndex.getInstance().renameAuthor(author.getAuthorId(), author.getName()));
+        return true;
+    }
+
+    /**
+     * Dashboard counters from one aggregate query, reused for a few seconds between calls
+     */
     public LibraryStatistics getLibraryStatistics() {
-        List<Author> authors = authorDAO.getAllAuthors();
-        List<Book> books = bookDAO.getAllBooks();
-        List<Member> members = memberDAO.getAllMembers();
-        List<BookLoan> activeLoans = bookLoanDAO.getActiveLoans();
-        List<BookLoan> overdueLoans = bookLoanDAO.getOverdueLoans();
+        LibraryStatistics statistics = STATISTICS_CACHE.get(STATISTICS_KEY, key -> {
+            ReportRepository.LibraryCounts counts = reportDAO.getLibraryCounts();
+            if (counts == null) {
+                return null;
+            }
+            return new LibraryStatistics(
+                    counts.getTotalAuthors(),
+                    counts.getTotalBooks(),
+                    counts.getTotalCopies(),
+                    counts.getTotalMembers(),
+                    counts.getActiveLoans(),
+                    counts.getOverdueLoans()
+            );
+        });
+        return statistics != null ? statistics : new LibraryStatistics(0, 0, 0, 0, 0, 0);
+    }
 
-        int totalCopies = books.stream().mapToInt(Book::getCopiesAvailable).sum();
+    /**
+     * BASIC / PREMIUM member counts from one GROUP BY query, reused for a few seconds between calls
+     */
+    public MembershipDistribution getMembershipDistribution() {
+        MembershipDistribution distribution = MEMBERSHIP_CACHE.get(STATISTICS_KEY, key -> {
+            ReportRepository.MembershipCounts counts = reportDAO.getMembershipCounts();
+            return counts != null ? new MembershipDistribution(counts.getBasicMembers(), counts.getPremiumMembers()) : null;
+        });
+        return distribution != null ? distribution : new MembershipDistribution(0, 0);
+    }
 
-        return new LibraryStatistics(
-                authors.size(),
-                books.size(),
-                totalCopies,
-                members.size(),
-                activeLoans.size(),
-                overdueLoans.size()
-        );
+    /**
+     * Available / out-of-stock book counts from one aggregate query, reused for a few seconds between calls
+     */
+    public AvailabilitySummary getAvailabilitySummary() {
+        AvailabilitySummary summary = AVAILABILITY_CACHE.get(STATISTICS_KEY, key -> {
+            ReportRepository.AvailabilityCounts counts = reportDAO.getAvailabilityCounts();
+            return counts != null ? new AvailabilitySummary(counts.getAvailableBooks(), counts.getOutOfStockBooks()) : null;
+        });
+        return summary != null ? summary : new AvailabilitySummary(0, 0);
+    }
+
+    /**
+     * Per-book detail rows for the availability report, read lazily from the database.
+     * The stream holds a connection until it is closed, so use try-with-resources.
+     */
+    public Stream<Book> streamBookAvailability() {
+        return bookDAO.streamAllBooks();
     }
 
     private boolean isValidEmail(String email) {
@@ -239,4 +421,52 @@ public class LibraryService {
                     totalMembers, activeLoans, overdueLoans);
         }
     }
+
+    public static class MembershipDistribution {
+        private final int basicMembers;
+        private final int premiumMembers;
+
+        public MembershipDistribution(int basicMembers, int premiumMembers) {
+            this.basicMembers = basicMembers;
+            this.premiumMembers = premiumMembers;
+        }
+
+        // Getters
+        public int getBasicMembers() { return basicMembers; }
+        public int getPremiumMembers() { return premiumMembers; }
+        public int getTotalMembers() { return basicMembers + premiumMembers; }
+
+        public double getBasicPercentage() {
+            return getTotalMembers() == 0 ? 0 : (double) basicMembers / getTotalMembers() * 100;
+        }
+
+        public double getPremiumPercentage() {
+            return getTotalMembers() == 0 ? 0 : (double) premiumMembers / getTotalMembers() * 100;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Membership: %d basic, %d premium", basicMembers, premiumMembers);
+        }
+    }
+
+    public static class AvailabilitySummary {
+        private final int availableBooks;
+        private final int outOfStockBooks;
+
+        public AvailabilitySummary(int availableBooks, int outOfStockBooks) {
+            this.availableBooks = availableBooks;
+            this.outOfStockBooks = outOfStockBooks;
+        }
+
+        // Getters
+        public int getAvailableBooks() { return availableBooks; }
+        public int getOutOfStockBooks() { return outOfStockBooks; }
+        public int getTotalBooks() { return availableBooks + outOfStockBooks; }
+
+        @Override
+        public String toString() {
+            return String.format("Availability: %d available, %d out of stock", availableBooks, outOfStockBooks);
+        }
+    }
 }
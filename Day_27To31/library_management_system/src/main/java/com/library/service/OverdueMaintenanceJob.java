@@ -0,0 +1,94 @@
+package Day_27To31.library_management_system.src.main.java.com.library.service;
+
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookLoanDAO;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.LoanRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.Repositories;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that marks overdue loans and materializes their fines.
+ *
+ * Fines only change when the date changes, so the job keeps a last-run watermark and
+ * runs at most once per day. Each run only touches loans whose due date has passed since
+ * the previous one, in small committed chunks (BookLoanDAO.markOverdueLoans), so it never
+ * holds locks on the whole loans table. Loan reads never write; they compute current fines.
+ * In derived-fine mode (the default, see BookLoanDAO.isDerivedFines) the job does not run.
+ */
+public final class OverdueMaintenanceJob {
+    private static final OverdueMaintenanceJob INSTANCE = new OverdueMaintenanceJob();
+
+    private static final long CHECK_INTERVAL_MILLIS =
+            LibraryConfig.getLong("library.overdue.checkIntervalMs", 3_600_000);
+
+    private final LoanRepository bookLoanDAO = Repositories.loans();
+    private ScheduledExecutorService scheduler;
+
+    // Watermark
+    private volatile LocalDate lastRunDate;
+    private volatile LocalDateTime lastRunAt;
+    private volatile int lastUpdatedCount;
+
+    private OverdueMaintenanceJob() {}
+
+    public static OverdueMaintenanceJob getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start the periodic check; the first run happens right away
+     */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        if (BookLoanDAO.isDerivedFines()) {
+            // Fines and overdue status are computed when loans are read; there is nothing to maintain
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "overdue-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runIfDue, 0, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Run only if the job has not completed yet today
+     */
+    public void runIfDue() {
+        if (!LocalDate.now().equals(lastRunDate)) {
+            runNow();
+        }
+    }
+
+    /**
+     * Run immediately regardless of the watermark
+     * @return number of loans updated
+     */
+    public synchronized int runNow() {
+        LocalDate today = LocalDate.now();
+        int updated = bookLoanDAO.markOverdueLoans(today);
+        if (updated >= 0) {
+            lastRunDate = today;
+            lastRunAt = LocalDateTime.now();
+            lastUpdatedCount = updated;
+        }
+        return updated;
+    }
+
+    public LocalDate getLastRunDate() { return lastRunDate; }
+    public LocalDateTime getLastRunAt() { return lastRunAt; }
+    public int getLastUpdatedCount() { return lastUpdatedCount; }
+}
@@ -0,0 +1,334 @@
+package Day_27To31.library_management_system.src.main.java.com.library.test;
+
+import Day_27To31.library_management_system.src.main.java.com.library.dao.ActiveLoanCounter;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.InventoryStore;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.LoanJournal;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.LoanRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.ReportRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.Repositories;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.service.LibraryService;
+import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LatencyHistogram;
+import Day_27To31.library_management_system.src.main.java.com.library.util.TransactionExecutor;
+import Day_27To31.library_management_system.src.main.java.com.library.util.UnitOfWork;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Multi-threaded checkout/return load generator for LibraryService.
+ *
+ * Workers run a weighted mix of issue, return, search and report operations against an
+ * existing dataset (see SyntheticDataGenerator) for a fixed time. Books are picked with a
+ * Zipf distribution so popular titles see real contention. At the end it prints throughput,
+ * latency percentiles per operation, rejected/failed/rolled-back counts and checks the
+ * inventory invariants against the database.
+ *
+ * With library.storage=memory nothing outlives the JVM, so the dataset is generated in-process
+ * first (SyntheticDataGenerator with the authors/books/members/loans sizes given here).
+ * With library.inventory.file set, checkouts reserve copies in the memory-mapped InventoryStore
+ * and the inventory check runs after its pending changes are written back. With
+ * library.journal.dir set, every issue and return also waits for the LoanJournal's group commit.
+ *
+ * Usage: LoadHarness [threads=16] [seconds=60] [warmup=10] [seed=7] [zipf=1.0]
+ *        [issue=40] [return=30] [search=20] [report=10]
+ *        [authors=10000] [books=100000] [members=50000] [loans=500000] (memory storage only)
+ */
+public class LoadHarness {
+    private enum Operation { ISSUE, RETURN, SEARCH, REPORT }
+
+    private final LibraryService libraryService = new LibraryService();
+    private final LoanRepository bookLoanDAO = Repositories.loans();
+    private final ReportRepository reportDAO = Repositories.reports();
+
+    private final int threads;
+    private final long seed;
+    private final double zipfExponent;
+    private final int[] weights;
+
+    private int[] bookIds;
+    private int[] memberIds;
+    private String[] searchTerms;
+
+    // Members who borrowed during the run; return operations start from them
+    private final ConcurrentLinkedQueue<Integer> borrowers = new ConcurrentLinkedQueue<>();
+
+    private final LatencyHistogram[] latency = new LatencyHistogram[Operation.values().length];
+    private final LongAdder[] succeeded = new LongAdder[Operation.values().length];
+    private final LongAdder[] rejected = new LongAdder[Operation.values().length];
+    private final LongAdder[] errors = new LongAdder[Operation.values().length];
+    private volatile boolean recording;
+    private long rollbacks;
+    private ReportRepository.InventoryCheck inventoryBefore;
+
+    public LoadHarness(int threads, long seed, double zipfExponent, int[] weights) {
+        this.threads = threads;
+        this.seed = seed;
+        this.zipfExponent = zipfExponent;
+        this.weights = weights;
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new LatencyHistogram();
+            succeeded[i] = new LongAdder();
+            rejected[i] = new LongAdder();
+            errors[i] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Integer.parseInt(arg(args, "threads", "16"));
+        int seconds = Integer.parseInt(arg(args, "seconds", "60"));
+        int warmup = Integer.parseInt(arg(args, "warmup", "10"));
+        long seed = Long.parseLong(arg(args, "seed", "7"));
+        double zipf = Double.parseDouble(arg(args, "zipf", "1.0"));
+        int[] weights = {
+                Integer.parseInt(arg(args, "issue", "40")),
+                Integer.parseInt(arg(args, "return", "30")),
+                Integer.parseInt(arg(args, "search", "20")),
+                Integer.parseInt(arg(args, "report", "10"))
+        };
+
+        System.out.println("=== LibraryService Load Harness ===");
+        System.out.printf("threads=%d seconds=%d warmup=%d seed=%d zipf=%.2f mix(issue/return/search/report)=%d/%d/%d/%d%n",
+                threads, seconds, warmup, seed, zipf, weights[0], weights[1], weights[2], weights[3]);
+
+        LoadHarness harness = new LoadHarness(threads, seed, zipf, weights);
+        try {
+            if (Repositories.isInMemory()) {
+                SyntheticDataGenerator generator = new SyntheticDataGenerator(seed);
+                generator.generateAuthors(Integer.parseInt(arg(args, "authors", "10000")));
+                generator.generateBooks(Integer.parseInt(arg(args, "books", "100000")));
+                generator.generateMembers(Integer.parseInt(arg(args, "members", "50000")), 0.2);
+                generator.generateLoans(Integer.parseInt(arg(args, "loans", "500000")), zipf, 730);
+                generator.reconcileInventory();
+            }
+            if (!harness.prepare()) return;
+            harness.run(warmup, seconds);
+            harness.report(seconds);
+        } finally {
+            if (!Repositories.isInMemory()) {
+                InventoryStore.getInstance().close();
+                LoanJournal.getInstance().close();
+                DatabaseConnection.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Load the ids the workers draw from and warm the in-memory indexes
+     */
+    public boolean prepare() {
+        LoanJournal.getInstance().open();
+        ActiveLoanCounter.getInstance().warm();
+        libraryService.buildSearchIndex();
+        InventoryStore.getInstance().open();
+
+        List<String> terms = new ArrayList<>();
+        try (Stream<Book> books = Repositories.books().streamAllBooks()) {
+            IntList ids = new IntList();
+            Iterator<Book> it = books.iterator();
+            while (it.hasNext()) {
+                Book book = it.next();
+                ids.add(book.getBookId());
+                if (terms.size() < 1000 && book.getTitle() != null) {
+                    for (String word : book.getTitle().split("\\s+")) {
+                        if (word.length() > 3) terms.add(word.substring(0, Math.min(word.length(), 5)));
+                    }
+                }
+            }
+            bookIds = ids.toArray();
+        }
+        try (Stream<Member> members = Repositories.members().streamAllMembers()) {
+            memberIds = members.mapToInt(Member::getMemberId).toArray();
+        }
+        searchTerms = terms.isEmpty() ? new String[]{"the"} : terms.toArray(new String[0]);
+
+        System.out.printf("Dataset: %d books, %d members%n", bookIds.length, memberIds.length);
+        if (bookIds.length == 0 || memberIds.length == 0) {
+            System.out.println("Load some data first (e.g. SyntheticDataGenerator)");
+            return false;
+        }
+        return true;
+    }
+
+    public void run(int warmupSeconds, int seconds) throws InterruptedException {
+        inventoryBefore = reportDAO.checkInventory();
+        System.out.println("Before: " + inventoryBefore);
+
+        // DAOs print a line per issue/return; keep the console readable while the workers run
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        SplittableRandom root = new SplittableRandom(seed);
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                SplittableRandom random = root.split();
+                Thread worker = new Thread(() -> {
+                    try {
+                        work(random, end);
+                    } finally {
+                        done.countDown();
+                    }
+                }, "load-worker-" + t);
+                worker.setDaemon(true);
+                worker.start();
+            }
+
+            sleepUntil(warmupEnd);
+            long rollbacksAtStart = UnitOfWork.getRollbackCount();
+            recording = true;
+            console.println("Warmup finished, measuring for " + seconds + "s...");
+            done.await();
+            recording = false;
+            rollbacks = UnitOfWork.getRollbackCount() - rollbacksAtStart;
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private void work(SplittableRandom random, long end) {
+        ZipfSampler bookPopularity = new ZipfSampler(bookIds.length, zipfExponent);
+        int totalWeight = 0;
+        for (int w : weights) totalWeight += w;
+
+        while (System.nanoTime() < end) {
+            Operation op = pick(random.nextInt(totalWeight));
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                switch (op) {
+                    case ISSUE:
+                        ok = issue(bookIds[bookPopularity.sample(random) - 1], memberIds[random.nextInt(memberIds.length)]);
+                        break;
+                    case RETURN:
+                        ok = returnOne(random);
+                        break;
+                    case SEARCH:
+                        libraryService.searchBooks(searchTerms[random.nextInt(searchTerms.length)]);
+                        ok = true;
+                        break;
+                    default:
+                        if (random.nextBoolean()) {
+                            libraryService.getLibraryStatistics();
+                        } else {
+                            libraryService.getMemberLoanSummary(memberIds[random.nextInt(memberIds.length)]);
+                        }
+                        ok = true;
+                        break;
+                }
+            } catch (RuntimeException e) {
+                if (recording) errors[op.ordinal()].increment();
+                continue;
+            }
+            if (recording) {
+                latency[op.ordinal()].record(System.nanoTime() - start);
+                (ok ? succeeded : rejected)[op.ordinal()].increment();
+            }
+        }
+    }
+
+    private boolean issue(int bookId, int memberId) {
+        if (libraryService.issueBook(bookId, memberId)) {
+            borrowers.add(memberId);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean returnOne(SplittableRandom random) {
+        Integer memberId = borrowers.poll();
+        if (memberId == null) {
+            // Nothing borrowed during the run yet: return for a random member, if they have anything out
+            memberId = memberIds[random.nextInt(memberIds.length)];
+        }
+        for (BookLoan loan : bookLoanDAO.getMemberLoans(memberId)) {
+            if (loan.getReturnDate() == null) {
+                return libraryService.returnBook(loan.getLoanId());
+            }
+        }
+        return false;
+    }
+
+    private Operation pick(int roll) {
+        for (Operation op : Operation.values()) {
+            roll -= weights[op.ordinal()];
+            if (roll < 0) return op;
+        }
+        return Operation.REPORT;
+    }
+
+    public void report(int seconds) {
+        System.out.println("\n=== Results (" + threads + " threads, " + seconds + "s measured) ===");
+        LatencyHistogram all = new LatencyHistogram();
+        long totalOps = 0;
+        for (Operation op : Operation.values()) {
+            int i = op.ordinal();
+            long ops = succeeded[i].sum() + rejected[i].sum();
+            totalOps += ops;
+            all.add(latency[i]);
+            System.out.printf("%-7s %8.1f ops/s  ok=%d rejected=%d errors=%d  %s%n",
+                    op, (double) ops / seconds, succeeded[i].sum(), rejected[i].sum(), errors[i].sum(),
+                    latency[i].summary());
+        }
+        System.out.printf("%-7s %8.1f ops/s  %s%n", "TOTAL", (double) totalOps / seconds, all.summary());
+        System.out.println("Transactions rolled back: " + rollbacks);
+        String lockStats = LibraryService.getCheckoutLockStats();
+        if (lockStats != null) {
+            System.out.println(lockStats);
+        }
+        TransactionExecutor.getRetryStats().forEach(System.out::println);
+
+        // The check reads the books table, which trails the inventory file until written back
+        InventoryStore.getInstance().sync();
+        ReportRepository.InventoryCheck after = reportDAO.checkInventory();
+        System.out.println("After:  " + after);
+        if (after != null && (after.getNegativeBooks() > 0 || (inventoryBefore != null
+                && after.getMismatchedBooks() > inventoryBefore.getMismatchedBooks()))) {
+            System.out.println("INVARIANT VIOLATED: the run left inventory that does not match open loans");
+        }
+        // Reconciling prints how many in-memory loan counters had drifted from the database
+        ActiveLoanCounter.getInstance().reconcile();
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            Thread.sleep(Math.max(1, remaining / 1_000_000));
+        }
+    }
+
+    private static String arg(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) return arg.substring(name.length() + 1);
+        }
+        return System.getProperty("harness." + name, defaultValue);
+    }
+
+    private static final class IntList {
+        private int[] data = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) data = java.util.Arrays.copyOf(data, size << 1);
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return java.util.Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package Day_27To31.library_management_system.src.main.java.com.library.test;
+
+import Day_27To31.library_management_system.src.main.java.com.library.app.ReportFormatter;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookDAO;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookLoanDAO;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.service.LibraryService;
+import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmarks for the row-mapping and report-rendering hot paths.
+ *
+ * The DAOs run against a StubDatabase, so the numbers cover ResultSet-to-model mapping,
+ * fine calculation and report formatting without any database time. Each benchmark runs
+ * timed warmup iterations before the measured ones and reports mean ns/op with its
+ * spread; results are fed to a sink so the JIT cannot drop the work.
+ *
+ * Usage: MappingBenchmarks [rows=10000] [warmup=5] [iterations=10] [millis=1000] [filter=]
+ */
+public class MappingBenchmarks {
+    private static final String[] BOOK_COLUMNS = {
+            "book_id", "title", "isbn", "publication_year", "price", "copies_available", "author_id", "author_name"
+    };
+    private static final String[] LOAN_COLUMNS = {
+            "loan_id", "book_id", "member_id", "loan_date", "return_date", "due_date",
+            "fine_amount", "status", "book_title", "member_name", "member_type"
+    };
+
+    private static volatile int sink;
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final long iterationNanos;
+    private final String filter;
+
+    public MappingBenchmarks(int warmupIterations, int iterations, long iterationMillis, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.filter = filter;
+    }
+
+    public static void main(String[] args) {
+        int rows = Integer.parseInt(arg(args, "rows", "10000"));
+        MappingBenchmarks benchmarks = new MappingBenchmarks(
+                Integer.parseInt(arg(args, "warmup", "5")),
+                Integer.parseInt(arg(args, "iterations", "10")),
+                Long.parseLong(arg(args, "millis", "1000")),
+                arg(args, "filter", ""));
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> bookRows = bookRows(rows, random);
+        List<Object[]> loanRows = loanRows(rows, random);
+        DatabaseConnection.setDataSource(new StubDatabase()
+                .addTable("FROM book_loans", LOAN_COLUMNS, loanRows)
+                .addTable("FROM books", BOOK_COLUMNS, bookRows)
+                .addTable("FROM library_settings", new String[]{"numeric_value"},
+                        Collections.singletonList(new Object[]{new BigDecimal("1.00")}))
+                .asDataSource());
+
+        // Keep the DAOs' per-call console output out of the measurements
+        PrintStream console = System.out;
+        PrintStream nullOut = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(nullOut);
+        try {
+            benchmarks.runAll(console, nullOut, rows);
+        } finally {
+            System.setOut(console);
+            DatabaseConnection.setDataSource(null);
+        }
+    }
+
+    private void runAll(PrintStream console, PrintStream nullOut, int rows) {
+        BookDAO bookDAO = new BookDAO();
+        BookLoanDAO bookLoanDAO = new BookLoanDAO();
+        List<Book> books = bookDAO.getAllBooks();
+        List<BookLoan> loans = bookLoanDAO.getActiveLoans();
+        List<BookLoan> overdue = bookLoanDAO.getOverdueLoans();
+        List<BookLoan> memberLoans = loans.subList(0, Math.min(20, loans.size()));
+        Member member = new Member(1, "Benchmark Member", "bench@example.com", "555-0100",
+                LocalDate.now().minusYears(1), Member.MembershipType.BASIC);
+        LibraryService.LibraryStatistics stats = new LibraryService.LibraryStatistics(
+                rows / 10, rows, rows * 3, rows / 2, loans.size(), overdue.size());
+        BigDecimal rate = new BigDecimal("0.50");
+
+        console.printf("=== Mapping benchmarks (%d rows, %d x %d ms warmup, %d x %d ms measured) ===%n",
+                rows, warmupIterations, iterationNanos / 1_000_000, iterations, iterationNanos / 1_000_000);
+        console.printf("%-42s %12s %10s%n", "Benchmark", "ns/op", "+/-");
+
+        run(console, "BookDAO.getAllBooks (per row)", rows, bookDAO::getAllBooks);
+        run(console, "BookLoanDAO.getActiveLoans (per row)", rows, bookLoanDAO::getActiveLoans);
+        run(console, "BookLoan.calculateFine (per loan)", loans.size(), () -> {
+            BigDecimal total = BigDecimal.ZERO;
+            for (BookLoan loan : loans) {
+                total = total.add(loan.calculateFine(rate));
+            }
+            return total;
+        });
+        run(console, "MemberLoanSummary(" + memberLoans.size() + " loans)", 1,
+                () -> new LibraryService.MemberLoanSummary(member, memberLoans));
+        run(console, "ReportFormatter.printLibraryOverview", 1, () -> {
+            ReportFormatter.printLibraryOverview(nullOut, stats);
+            return stats;
+        });
+        run(console, "ReportFormatter.printBookAvailability (/row)", books.size(), () -> {
+            ReportFormatter.printBookAvailability(nullOut, books);
+            return books;
+        });
+        run(console, "ReportFormatter.printOverdueLoans (/row)", Math.max(1, overdue.size()), () -> {
+            ReportFormatter.printOverdueLoans(nullOut, overdue);
+            return overdue;
+        });
+    }
+
+    /**
+     * @param opsPerInvocation how many operations one call of the body performs (e.g. rows mapped)
+     */
+    private void run(PrintStream console, String name, int opsPerInvocation, Supplier<?> body) {
+        if (!name.contains(filter)) return;
+
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(body);
+        }
+        double[] nsPerOp = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long[] result = iteration(body);
+            nsPerOp[i] = (double) result[0] / (result[1] * (long) opsPerInvocation);
+        }
+
+        double mean = 0;
+        for (double v : nsPerOp) mean += v;
+        mean /= nsPerOp.length;
+        double variance = 0;
+        for (double v : nsPerOp) variance += (v - mean) * (v - mean);
+        double stdDev = nsPerOp.length > 1 ? Math.sqrt(variance / (nsPerOp.length - 1)) : 0;
+
+        console.printf("%-42s %12.1f %10.1f%n", name, mean, stdDev);
+    }
+
+    /**
+     * Call the body until the iteration time is used up; returns {elapsed nanos, invocations}
+     */
+    private long[] iteration(Supplier<?> body) {
+        long invocations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            consume(body.get());
+            invocations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        return new long[]{elapsed, invocations};
+    }
+
+    private static void consume(Object result) {
+        sink ^= System.identityHashCode(result);
+    }
+
+    private static List<Object[]> bookRows(int count, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[]{
+                    i,
+                    "Benchmark Title Number " + i,
+                    String.format("978%010d", i),
+                    random.nextInt(10) == 0 ? null : 1900 + random.nextInt(125),
+                    BigDecimal.valueOf(500 + random.nextInt(5000), 2),
+                    random.nextInt(6),
+                    1 + random.nextInt(Math.max(1, count / 10)),
+                    "Author " + random.nextInt(Math.max(1, count / 10))
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * Open loans, about a third of them past due
+     */
+    private static List<Object[]> loanRows(int count, SplittableRandom random) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            LocalDate loanDate = today.minusDays(random.nextInt(40));
+            LocalDate dueDate = loanDate.plusDays(random.nextBoolean() ? 14 : 21);
+            boolean overdue = dueDate.isBefore(today);
+            rows.add(new Object[]{
+                    i,
+                    1 + random.nextInt(count),
+                    1 + random.nextInt(Math.max(1, count / 2)),
+                    Date.valueOf(loanDate),
+                    null,
+                    Date.valueOf(dueDate),
+                    BigDecimal.ZERO.setScale(2),
+                    overdue ? "OVERDUE" : "ACTIVE",
+                    "Benchmark Title Number " + i,
+                    "Member " + i,
+                    random.nextInt(5) == 0 ? "PREMIUM" : "BASIC"
+            });
+        }
+        return rows;
+    }
+
+    private static String arg(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) return arg.substring(name.length() + 1);
+        }
+        return System.getProperty("benchmark." + name, defaultValue);
+    }
+}
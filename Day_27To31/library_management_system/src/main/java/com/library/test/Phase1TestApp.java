@@ -4,9 +4,11 @@ import Day_27To31.library_management_system.src.main.java.com.library.dao.Author
 import Day_27To31.library_management_system.src.main.java.com.library.dao.BookDAO;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
 import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.service.BookSearchIndex;
 import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
@@ -35,6 +37,9 @@ public class Phase1TestApp {
                 case 3:
                     displayAllData();
                     break;
+                case 4:
+                    testIsbnSearch();
+                    break;
                 case 0:
                     System.out.println("Exiting...");
                     return;
@@ -49,6 +54,7 @@ public class Phase1TestApp {
         System.out.println("1. Test Author Operations");
         System.out.println("2. Test Book Operations");
         System.out.println("3. Display All Data");
+        System.out.println("4. Test ISBN Search");
         System.out.println("0. Exit");
     }
 
@@ -131,6 +137,44 @@ public class Phase1TestApp {
         books.forEach(System.out::println);
     }
 
+    /**
+     * ISBN queries typed with or without hyphens or spaces must find the book whichever way its
+     * ISBN was stored. Runs on a standalone index of sample books, leaving the shared index
+     * alone; no database needed.
+     */
+    private static void testIsbnSearch() {
+        System.out.println("\n--- Testing ISBN Search ---");
+
+        Book plain = new Book("Clean Code", "9780132350884", 2008, new BigDecimal("37.99"), 3, 1);
+        plain.setBookId(1);
+        Book hyphenated = new Book("Effective Java", "978-0-13-468599-1", 2018, new BigDecimal("45.99"), 2, 2);
+        hyphenated.setBookId(2);
+        Book other = new Book("Refactoring", "978-0-13-475759-9", 2018, new BigDecimal("47.99"), 1, 3);
+        other.setBookId(3);
+
+        BookSearchIndex index = BookSearchIndex.newStandalone();
+        index.rebuild(Arrays.asList(plain, hyphenated, other));
+
+        int failures = 0;
+        failures += checkSearch(index, "9780132350884", 1);
+        failures += checkSearch(index, "978-0-13-235088-4", 1);
+        failures += checkSearch(index, "978 0132350884", 1);
+        failures += checkSearch(index, "978-0-13-468599-1", 2);
+        failures += checkSearch(index, "9780134685991", 2);
+        failures += checkSearch(index, "978 0134685991", 2);
+        failures += checkSearch(index, "0-13", 2);
+        failures += checkSearch(index, "978-013468", 2);
+        System.out.println(failures == 0 ? "All ISBN searches passed" : failures + " ISBN search(es) failed");
+    }
+
+    private static int checkSearch(BookSearchIndex index, String query, int expectedBookId) {
+        List<Integer> found = index.search(query, 10);
+        boolean passed = found.contains(expectedBookId);
+        System.out.println((passed ? "PASS" : "FAIL") + "  \"" + query + "\" -> " + found
+                + " (expected book " + expectedBookId + ")");
+        return passed ? 0 : 1;
+    }
+
     private static void displayAllData() {
         System.out.println("\n--- Current Database State ---");
 
@@ -0,0 +1,154 @@
+package Day_27To31.library_management_system.src.main.java.com.library.test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process stand-in for the database: canned rows served through JDBC interfaces.
+ *
+ * A query is answered by the first table whose SQL fragment it contains, so DAO code runs
+ * unchanged (install it with DatabaseConnection.setDataSource) while the cost measured is
+ * the DAO's own mapping work rather than network and server time. Updates report one row.
+ */
+public class StubDatabase {
+    private final List<Table> tables = new ArrayList<>();
+
+    /**
+     * @param sqlFragment text identifying the queries this table answers, e.g. "FROM books b"
+     */
+    public StubDatabase addTable(String sqlFragment, String[] columns, List<Object[]> rows) {
+        tables.add(new Table(sqlFragment.toLowerCase(Locale.ROOT), columns, rows));
+        return this;
+    }
+
+    public DataSource asDataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) return newConnection();
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    private Connection newConnection() {
+        boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            return newStatement((String) args[0]);
+                        case "close":
+                            closed[0] = true;
+                            return null;
+                        case "isClosed":
+                            return closed[0];
+                        case "getAutoCommit":
+                        case "isValid":
+                            return true;
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private PreparedStatement newStatement(String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "executeQuery":
+                            return newResultSet(tableFor(sql));
+                        case "executeUpdate":
+                            return 1;
+                        case "executeBatch":
+                            return new int[0];
+                        case "getGeneratedKeys":
+                            return newResultSet(new Table("", new String[]{"id"}, new ArrayList<>()));
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private Table tableFor(String sql) throws SQLException {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        for (Table table : tables) {
+            if (lower.contains(table.sqlFragment)) return table;
+        }
+        throw new SQLException("Stub database has no table for: " + sql);
+    }
+
+    private static ResultSet newResultSet(Table table) {
+        int[] row = {-1};
+        boolean[] wasNull = {false};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("next")) {
+                        return ++row[0] < table.rows.size();
+                    }
+                    if (name.startsWith("get") && args != null && args.length >= 1) {
+                        Object value = table.value(row[0], args[0]);
+                        wasNull[0] = value == null;
+                        switch (name) {
+                            case "getInt":
+                                return value == null ? 0 : ((Number) value).intValue();
+                            case "getLong":
+                                return value == null ? 0L : ((Number) value).longValue();
+                            case "getBigDecimal":
+                                return value == null || value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+                            case "getString":
+                                return value == null ? null : value.toString();
+                            default:
+                                return value;
+                        }
+                    }
+                    if (name.equals("wasNull")) return wasNull[0];
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return false;
+        if (type == void.class) return null;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        return 0;
+    }
+
+    private static final class Table {
+        private final String sqlFragment;
+        private final Map<String, Integer> columnIndex = new HashMap<>();
+        private final List<Object[]> rows;
+
+        Table(String sqlFragment, String[] columns, List<Object[]> rows) {
+            this.sqlFragment = sqlFragment;
+            this.rows = rows;
+            for (int i = 0; i < columns.length; i++) {
+                columnIndex.put(columns[i].toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        Object value(int row, Object column) throws SQLException {
+            int index;
+            if (column instanceof Integer) {
+                index = (Integer) column - 1;
+            } else {
+                Integer found = columnIndex.get(column.toString().toLowerCase(Locale.ROOT));
+                if (found == null) throw new SQLException("Unknown column: " + column);
+                index = found;
+            }
+            return rows.get(row)[index];
+        }
+    }
+}
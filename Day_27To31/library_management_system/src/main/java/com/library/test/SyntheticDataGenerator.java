@@ -0,0 +1,363 @@
+package Day_27To31.library_management_system.src.main.java.com.library.test;
+
+import Day_27To31.library_management_system.src.main.java.com.library.dao.AuthorRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookLoanDAO;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BookRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.BulkResult;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.LoanRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.MemberRepository;
+import Day_27To31.library_management_system.src.main.java.com.library.dao.Repositories;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Author;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Book;
+import Day_27To31.library_management_system.src.main.java.com.library.model.BookLoan;
+import Day_27To31.library_management_system.src.main.java.com.library.model.Member;
+import Day_27To31.library_management_system.src.main.java.com.library.util.DatabaseConnection;
+import Day_27To31.library_management_system.src.main.java.com.library.util.LibraryConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic bulk data generator for trying the schema at realistic volume.
+ *
+ * The same seed and sizes always produce the same rows (on an empty database, where the
+ * generated ids are predictable too). Distributions:
+ * - book popularity and author productivity are Zipfian, so a few titles take most loans
+ * - roughly 20% PREMIUM members, loan durations and limits follow the membership type
+ * - loans span the last two years; most past loans are returned (some late, with fines),
+ *   a few stay open and overdue, and recent ones are a mix of open and returned early
+ * - open loans never exceed a book's copies or a member's limit
+ *
+ * Everything is loaded through the repositories' bulk inserts (batched INSERTs, or the
+ * in-memory store with library.storage=memory); copies available are reconciled with the
+ * open loans at the end.
+ *
+ * Usage: SyntheticDataGenerator [seed=42] [authors=10000] [books=100000] [members=50000] [loans=500000]
+ *        [zipf=1.0] [premiumRatio=0.2] [historyDays=730]
+ */
+public class SyntheticDataGenerator {
+    private static final int CHUNK_SIZE = LibraryConfig.getInt("library.bulk.chunkSize", 1000);
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Priya", "Arjun", "Wei", "Mei", "Hiroshi", "Yuki", "Carlos", "Sofia", "Ahmed", "Fatima"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee",
+            "Patel", "Sharma", "Chen", "Wang", "Tanaka", "Sato", "Silva", "Rossi", "Khan", "Ali"
+    };
+    private static final String[] TITLE_WORDS = {
+            "Shadow", "River", "Garden", "Empire", "Secret", "Winter", "Silent", "Golden", "Last", "Lost",
+            "House", "Night", "Storm", "Memory", "Ocean", "Fire", "Glass", "Iron", "City", "Dream",
+            "Journey", "Kingdom", "Stranger", "Light", "Mountain", "Letters", "Island", "Machine", "Song", "Ghost",
+            "Theory", "History", "Practical", "Modern", "Introduction", "Principles", "Art", "Science", "Guide", "Code"
+    };
+
+    private final long seed;
+    private final SplittableRandom random;
+    private final LocalDate today = LocalDate.now();
+
+    private final AuthorRepository authorDAO = Repositories.authors();
+    private final BookRepository bookDAO = Repositories.books();
+    private final MemberRepository memberDAO = Repositories.members();
+    private final LoanRepository bookLoanDAO = Repositories.loans();
+
+    // Generated rows, kept as primitive arrays so millions of rows fit comfortably in memory
+    private int[] authorIds = new int[0];
+    private int[] bookIds = new int[0];
+    private byte[] bookCopies = new byte[0];
+    private int[] memberIds = new int[0];
+    private boolean[] memberPremium = new boolean[0];
+    private long[] memberJoinDay = new long[0];
+
+    public SyntheticDataGenerator(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] args) {
+        long seed = Long.parseLong(arg(args, "seed", "42"));
+        int authors = Integer.parseInt(arg(args, "authors", "10000"));
+        int books = Integer.parseInt(arg(args, "books", "100000"));
+        int members = Integer.parseInt(arg(args, "members", "50000"));
+        int loans = Integer.parseInt(arg(args, "loans", "500000"));
+        double zipf = Double.parseDouble(arg(args, "zipf", "1.0"));
+        double premiumRatio = Double.parseDouble(arg(args, "premiumRatio", "0.2"));
+        int historyDays = Integer.parseInt(arg(args, "historyDays", "730"));
+
+        System.out.println("=== Synthetic Data Generator ===");
+        System.out.printf("seed=%d authors=%d books=%d members=%d loans=%d zipf=%.2f premiumRatio=%.2f historyDays=%d%n",
+                seed, authors, books, members, loans, zipf, premiumRatio, historyDays);
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(seed);
+        long start = System.nanoTime();
+        try {
+            generator.generateAuthors(authors);
+            generator.generateBooks(books);
+            generator.generateMembers(members, premiumRatio);
+            generator.generateLoans(loans, zipf, historyDays);
+            generator.reconcileInventory();
+        } finally {
+            if (!Repositories.isInMemory()) {
+                DatabaseConnection.shutdown();
+            }
+        }
+        System.out.printf("Done in %.1fs%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    public void generateAuthors(int count) {
+        Phase phase = new Phase("authors", count);
+        authorIds = new int[count];
+        int loaded = 0;
+
+        List<Author> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < count; i++) {
+            String first = pick(FIRST_NAMES);
+            String last = pick(LAST_NAMES);
+            Integer birthYear = random.nextInt(10) == 0 ? null : 1900 + random.nextInt(100);
+            chunk.add(new Author(first + " " + last,
+                    email(first, last, "a", i),
+                    birthYear,
+                    random.nextInt(4) == 0 ? null : "Author of " + (1 + random.nextInt(40)) + " works."));
+
+            if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                phase.add(authorDAO.createAuthors(chunk, CHUNK_SIZE));
+                for (Author author : chunk) {
+                    if (author.getAuthorId() > 0) authorIds[loaded++] = author.getAuthorId();
+                }
+                chunk.clear();
+            }
+        }
+        authorIds = Arrays.copyOf(authorIds, loaded);
+        phase.finish();
+    }
+
+    public void generateBooks(int count) {
+        if (authorIds.length == 0) {
+            System.out.println("No authors were inserted; skipping books");
+            return;
+        }
+        Phase phase = new Phase("books", count);
+        // A few prolific authors write many of the books
+        ZipfSampler authorPopularity = new ZipfSampler(authorIds.length, 0.8);
+        bookIds = new int[count];
+        bookCopies = new byte[count];
+        int loaded = 0;
+
+        List<Book> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < count; i++) {
+            int copies = 1;
+            while (copies < 10 && random.nextInt(2) == 0) copies++;
+
+            chunk.add(new Book(
+                    title(),
+                    isbn13(i),
+                    1950 + random.nextInt(today.getYear() - 1949),
+                    BigDecimal.valueOf(499 + random.nextInt(5000), 2),
+                    copies,
+                    authorIds[authorPopularity.sample(random) - 1]));
+
+            if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                phase.add(bookDAO.createBooks(chunk, CHUNK_SIZE));
+                for (Book book : chunk) {
+                    if (book.getBookId() > 0) {
+                        bookIds[loaded] = book.getBookId();
+                        bookCopies[loaded] = (byte) book.getCopiesAvailable();
+                        loaded++;
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        bookIds = Arrays.copyOf(bookIds, loaded);
+        bookCopies = Arrays.copyOf(bookCopies, loaded);
+        phase.finish();
+    }
+
+    public void generateMembers(int count, double premiumRatio) {
+        Phase phase = new Phase("members", count);
+        memberIds = new int[count];
+        memberPremium = new boolean[count];
+        memberJoinDay = new long[count];
+        int loaded = 0;
+
+        List<Member> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < count; i++) {
+            String first = pick(FIRST_NAMES);
+            String last = pick(LAST_NAMES);
+            Member member = new Member(first + " " + last,
+                    email(first, last, "m", i),
+                    String.format("555%07d", random.nextInt(10_000_000)),
+                    random.nextDouble() < premiumRatio ? Member.MembershipType.PREMIUM : Member.MembershipType.BASIC);
+            member.setJoinDate(today.minusDays(random.nextInt(5 * 365)));
+            chunk.add(member);
+
+            if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                phase.add(memberDAO.createMembers(chunk, CHUNK_SIZE));
+                for (Member m : chunk) {
+                    if (m.getMemberId() > 0) {
+                        memberIds[loaded] = m.getMemberId();
+                        memberPremium[loaded] = m.getMembershipType() == Member.MembershipType.PREMIUM;
+                        memberJoinDay[loaded] = m.getJoinDate().toEpochDay();
+                        loaded++;
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        memberIds = Arrays.copyOf(memberIds, loaded);
+        memberPremium = Arrays.copyOf(memberPremium, loaded);
+        memberJoinDay = Arrays.copyOf(memberJoinDay, loaded);
+        phase.finish();
+    }
+
+    public void generateLoans(int count, double zipfExponent, int historyDays) {
+        if (bookIds.length == 0 || memberIds.length == 0) {
+            System.out.println("No books or members were inserted; skipping loans");
+            return;
+        }
+        Phase phase = new Phase("loans", count);
+        ZipfSampler bookPopularity = new ZipfSampler(bookIds.length, zipfExponent);
+        byte[] openPerBook = new byte[bookIds.length];
+        byte[] openPerMember = new byte[memberIds.length];
+        long todayDay = today.toEpochDay();
+        int open = 0;
+        int overdue = 0;
+
+        List<BookLoan> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < count; i++) {
+            int book = bookPopularity.sample(random) - 1;
+            int member = random.nextInt(memberIds.length);
+
+            long earliest = Math.max(memberJoinDay[member], todayDay - historyDays);
+            long loanDay = earliest + random.nextInt((int) (todayDay - earliest) + 1);
+            int duration = memberPremium[member] ? 21 : 14;
+            int limit = memberPremium[member] ? 10 : 3;
+            LocalDate loanDate = LocalDate.ofEpochDay(loanDay);
+            LocalDate dueDate = loanDate.plusDays(duration);
+
+            // Past-due loans are nearly always back by now; recent ones are often still out
+            boolean stillOut = dueDate.isBefore(today) ? random.nextInt(100) < 3 : random.nextInt(100) < 60;
+            if (stillOut && (openPerBook[book] >= bookCopies[book] || openPerMember[member] >= limit)) {
+                stillOut = false;
+            }
+
+            BookLoan loan;
+            if (stillOut) {
+                openPerBook[book]++;
+                openPerMember[member]++;
+                open++;
+                boolean isOverdue = dueDate.isBefore(today);
+                if (isOverdue) overdue++;
+                loan = new BookLoan(0, bookIds[book], memberIds[member], loanDate, null, dueDate,
+                        isOverdue ? fineFor(dueDate, today) : BigDecimal.ZERO,
+                        isOverdue ? BookLoan.LoanStatus.OVERDUE : BookLoan.LoanStatus.ACTIVE);
+            } else {
+                // About one return in ten is late
+                long keptDays = random.nextInt(10) == 0
+                        ? duration + 1 + random.nextInt(20)
+                        : 1 + random.nextInt(duration);
+                LocalDate returnDate = loanDate.plusDays(keptDays);
+                if (returnDate.isAfter(today)) returnDate = today;
+                loan = new BookLoan(0, bookIds[book], memberIds[member], loanDate, returnDate, dueDate,
+                        returnDate.isAfter(dueDate) ? fineFor(dueDate, returnDate) : BigDecimal.ZERO,
+                        BookLoan.LoanStatus.RETURNED);
+            }
+            chunk.add(loan);
+
+            if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                phase.add(bookLoanDAO.createLoans(chunk, CHUNK_SIZE));
+                chunk.clear();
+            }
+        }
+        phase.finish();
+        System.out.printf("  open loans: %d (%d overdue), returned: %d%n", open, overdue, count - open);
+    }
+
+    public void reconcileInventory() {
+        long start = System.nanoTime();
+        int changed = bookDAO.reconcileCopiesAvailable();
+        System.out.printf("Reconciled copies_available for %d book(s) in %.1fs%n",
+                changed, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static BigDecimal fineFor(LocalDate dueDate, LocalDate asOf) {
+        return BookLoanDAO.getDailyFineRate().multiply(BigDecimal.valueOf(asOf.toEpochDay() - dueDate.toEpochDay()));
+    }
+
+    private String title() {
+        int words = 1 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder(random.nextInt(3) == 0 ? "The " : "");
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(w == words - 1 && random.nextBoolean() ? " of " : " ");
+            sb.append(pick(TITLE_WORDS));
+        }
+        return sb.toString();
+    }
+
+    // Unique per (seed, index): 978 prefix, 9 digits derived from both, and a valid check digit
+    private String isbn13(int index) {
+        long body = Math.floorMod(seed * 1_000_003L + index, 1_000_000_000L);
+        String digits = String.format("978%09d", body);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + ((10 - sum % 10) % 10);
+    }
+
+    private String email(String first, String last, String kind, int index) {
+        return (first + "." + last).toLowerCase() + "." + kind + index + "@s" + seed + ".example.org";
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String arg(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) return arg.substring(name.length() + 1);
+        }
+        return System.getProperty("generator." + name, defaultValue);
+    }
+
+    /**
+     * Progress and throughput for one table
+     */
+    private static final class Phase {
+        private final String table;
+        private final int target;
+        private final long start = System.nanoTime();
+        private final BulkResult total = new BulkResult();
+        private long lastReport = start;
+
+        Phase(String table, int target) {
+            this.table = table;
+            this.target = target;
+            System.out.println("Generating " + target + " " + table + "...");
+        }
+
+        void add(BulkResult result) {
+            total.add(result);
+            long now = System.nanoTime();
+            if (now - lastReport > 5_000_000_000L) {
+                lastReport = now;
+                int done = total.getInserted() + total.getDuplicates() + total.getFailed();
+                System.out.printf("  %s: %d/%d (%.0f rows/s)%n", table, done, target,
+                        total.getInserted() / ((now - start) / 1e9));
+            }
+        }
+
+        void finish() {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  %s: %s; %.1fs wall, %.0f rows/s%n",
+                    table, total, seconds, seconds == 0 ? 0 : total.getInserted() / seconds);
+        }
+    }
+}
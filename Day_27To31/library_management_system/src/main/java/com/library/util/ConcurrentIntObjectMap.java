@@ -0,0 +1,254 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import java.util.function.IntFunction;
+
+/**
+ * Concurrent hash map keyed by primitive int (no Integer boxing on lookups).
+ *
+ * The table is split into independently locked segments; each segment is an
+ * open-addressing array with linear probing. Integer.MIN_VALUE is reserved as
+ * the empty-slot marker and cannot be used as a key.
+ */
+public class ConcurrentIntObjectMap<V> {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+
+    public ConcurrentIntObjectMap() {
+        this(16, 64);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentIntObjectMap(int concurrencyLevel, int initialCapacity) {
+        int segmentCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1) << 1);
+        this.segments = (Segment<V>[]) new Segment<?>[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        int perSegment = Math.max(4, initialCapacity / segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+    }
+
+    public V get(int key) {
+        int hash = spread(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the previous value, or null
+     */
+    public V put(int key, V value) {
+        checkKey(key);
+        if (value == null) throw new NullPointerException("value");
+        int hash = spread(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * @return the existing value, or null if the new value was stored
+     */
+    public V putIfAbsent(int key, V value) {
+        checkKey(key);
+        if (value == null) throw new NullPointerException("value");
+        int hash = spread(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        checkKey(key);
+        int hash = spread(key);
+        return segmentFor(hash).computeIfAbsent(key, hash, factory);
+    }
+
+    public V remove(int key) {
+        int hash = spread(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Visit every entry. Each segment is locked while it is visited, so keep the action short.
+     */
+    public void forEach(IntObjConsumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    public int[] keys() {
+        IntList keys = new IntList();
+        forEach((key, value) -> keys.add(key));
+        return keys.toArray();
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments[(hash >>> 24) & segmentMask];
+    }
+
+    private static int spread(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void checkKey(int key) {
+        if (key == EMPTY) throw new IllegalArgumentException("Integer.MIN_VALUE is reserved");
+    }
+
+    @FunctionalInterface
+    public interface IntObjConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private static final class Segment<V> {
+        private int[] keys;
+        private Object[] values;
+        private int size;
+
+        Segment(int capacity) {
+            allocate(tableSizeFor(capacity));
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            java.util.Arrays.fill(keys, EMPTY);
+            values = new Object[capacity];
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V get(int key, int hash) {
+            int mask = keys.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) return (V) values[i];
+                if (k == EMPTY) return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V put(int key, int hash, V value, boolean onlyIfAbsent) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            for (; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) {
+                    V old = (V) values[i];
+                    if (!onlyIfAbsent) values[i] = value;
+                    return old;
+                }
+                if (k == EMPTY) break;
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size > keys.length * 3 / 4) {
+                rehash(keys.length << 1);
+            }
+            return null;
+        }
+
+        synchronized V computeIfAbsent(int key, int hash, IntFunction<? extends V> factory) {
+            V existing = get(key, hash);
+            if (existing != null) return existing;
+            V created = factory.apply(key);
+            if (created != null) put(key, hash, created, false);
+            return created;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V remove(int key, int hash) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            for (; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == EMPTY) return null;
+                if (k == key) break;
+            }
+            V old = (V) values[i];
+
+            // Backward-shift deletion keeps probe chains intact without tombstones
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = spread(keys[j]) & mask;
+                boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+                if (movable) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = null;
+            size--;
+            return old;
+        }
+
+        synchronized void clear() {
+            java.util.Arrays.fill(keys, EMPTY);
+            java.util.Arrays.fill(values, null);
+            size = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized void forEach(IntObjConsumer<? super V> action) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) action.accept(keys[i], (V) values[i]);
+            }
+        }
+
+        private void rehash(int newCapacity) {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            allocate(newCapacity);
+            int mask = newCapacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                int k = oldKeys[i];
+                if (k == EMPTY) continue;
+                int j = spread(k) & mask;
+                while (keys[j] != EMPTY) j = (j + 1) & mask;
+                keys[j] = k;
+                values[j] = oldValues[i];
+            }
+        }
+
+        private static int tableSizeFor(int capacity) {
+            return Integer.highestOneBit(Math.max(4, capacity - 1) << 1);
+        }
+    }
+
+    private static final class IntList {
+        private int[] data = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) data = java.util.Arrays.copyOf(data, size << 1);
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return java.util.Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ *
+ * Callers get a lightweight handle; closing the handle returns the physical
+ * connection to the pool instead of closing the socket, so existing
+ * "open, use, close" DAO code works unchanged. Each physical connection also
+ * keeps an LRU cache of its prepared statements.
+ */
+public class ConnectionPool implements DataSource {
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int statementCacheSize;
+
+    // Most recently returned connections sit at the head, so hot connections get reused
+    // and cold ones drift to the tail where the evictor picks them up
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore leases;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean shutdown;
+
+    // Counters
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalUsageNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
+    public ConnectionPool(String url, String username, String password,
+                          int minSize, int maxSize, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long validationIntervalMillis, int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.leases = new Semaphore(maxSize, true);
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout if the pool is exhausted
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = leases.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMillis
+                    + "ms waiting for a connection (pool size " + maxSize + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            recordWait(System.nanoTime() - start);
+            borrowCount.increment();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            leases.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool is bound to a single set of credentials");
+    }
+
+    /**
+     * Close all idle connections and reject further borrows. Leased connections are closed when returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        maintenance.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(
+                openConnections.get(),
+                idleConnections.size(),
+                maxSize - leases.availablePermits(),
+                leases.getQueueLength(),
+                borrowCount.sum(),
+                createdCount.sum(),
+                destroyedCount.sum(),
+                timeoutCount.sum(),
+                validationFailures.sum(),
+                totalWaitNanos.sum(),
+                maxWaitNanos.get(),
+                totalUsageNanos.sum(),
+                statementCacheHits.sum(),
+                statementCacheMisses.sum(),
+                statementCacheEvictions.sum()
+        );
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            validationFailures.increment();
+            destroy(pooled);
+        }
+        return create();
+    }
+
+    /**
+     * Validate on borrow, skipping the round trip for connections that were in use very recently
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.lastReturnedNanos);
+        if (idleMillis < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return pooled.connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        openConnections.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(connection);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        openConnections.decrementAndGet();
+        destroyedCount.increment();
+        pooled.statements.closeAll();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void release(PooledConnection pooled, long leaseNanos) {
+        totalUsageNanos.add(leaseNanos);
+        try {
+            if (shutdown || pooled.connection.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            // Never hand an open transaction to the next borrower
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            pooled.lastReturnedNanos = System.nanoTime();
+            idleConnections.offerFirst(pooled);
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            leases.release();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Evict connections idle past the timeout (down to the minimum), then top the pool back up
+     */
+    private void runMaintenance() {
+        long now = System.nanoTime();
+        Iterator<PooledConnection> it = idleConnections.descendingIterator();
+        while (it.hasNext() && openConnections.get() > minSize) {
+            PooledConnection pooled = it.next();
+            long idleMillis = TimeUnit.NANOSECONDS.toMillis(now - pooled.lastReturnedNanos);
+            if (idleMillis >= idleTimeoutMillis && idleConnections.removeLastOccurrence(pooled)) {
+                destroy(pooled);
+            }
+        }
+
+        // Creating under a lease keeps open connections <= maxSize
+        while (!shutdown && openConnections.get() < minSize && leases.tryAcquire()) {
+            try {
+                PooledConnection pooled = create();
+                pooled.lastReturnedNanos = System.nanoTime();
+                idleConnections.offerLast(pooled);
+            } catch (SQLException e) {
+                break; // database unreachable, try again next round
+            } finally {
+                leases.release();
+            }
+        }
+    }
+
+    // ==================== DataSource boilerplate ====================
+
+    @Override
+    public PrintWriter getLogWriter() { return DriverManager.getLogWriter(); }
+
+    @Override
+    public void setLogWriter(PrintWriter out) { DriverManager.setLogWriter(out); }
+
+    @Override
+    public void setLoginTimeout(int seconds) { DriverManager.setLoginTimeout(seconds); }
+
+    @Override
+    public int getLoginTimeout() { return DriverManager.getLoginTimeout(); }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    // ==================== Pooled connection ====================
+
+    private class PooledConnection {
+        private final Connection connection;
+        private final StatementCache statements;
+        private volatile long lastReturnedNanos;
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new StatementCache(connection, statementCacheSize,
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions);
+            this.lastReturnedNanos = System.nanoTime();
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * One handle per borrow, so a stale reference closed twice cannot return the connection twice
+     */
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final long leasedAt = System.nanoTime();
+        private boolean closed;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled, System.nanoTime() - leasedAt);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.connection + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            if (method.getName().equals("prepareStatement")) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return pooled.statements.prepare((String) args[0]);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return pooled.statements.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // ==================== Statistics ====================
+
+    public static class PoolStats {
+        private final int openConnections;
+        private final int idleConnections;
+        private final int activeConnections;
+        private final int waitingThreads;
+        private final long borrowCount;
+        private final long createdCount;
+        private final long destroyedCount;
+        private final long timeoutCount;
+        private final long validationFailures;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long totalUsageNanos;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+
+        public PoolStats(int openConnections, int idleConnections, int activeConnections, int waitingThreads,
+                         long borrowCount, long createdCount, long destroyedCount, long timeoutCount,
+                         long validationFailures, long totalWaitNanos, long maxWaitNanos, long totalUsageNanos,
+                         long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+            this.openConnections = openConnections;
+            this.idleConnections = idleConnections;
+            this.activeConnections = activeConnections;
+            this.waitingThreads = waitingThreads;
+            this.borrowCount = borrowCount;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+            this.timeoutCount = timeoutCount;
+            this.validationFailures = validationFailures;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.totalUsageNanos = totalUsageNanos;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        // Getters
+        public int getOpenConnections() { return openConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getWaitingThreads() { return waitingThreads; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getDestroyedCount() { return destroyedCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getTotalWaitNanos() { return totalWaitNanos; }
+        public long getMaxWaitNanos() { return maxWaitNanos; }
+        public long getTotalUsageNanos() { return totalUsageNanos; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+        public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+        public double getStatementCacheHitRatio() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+        }
+
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+        }
+
+        public double getAverageUsageMillis() {
+            return borrowCount == 0 ? 0 : totalUsageNanos / 1_000_000.0 / borrowCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool{open=%d, idle=%d, active=%d, waiting=%d, borrows=%d, created=%d, " +
+                            "destroyed=%d, timeouts=%d, validationFailures=%d, avgWait=%.3fms, maxWait=%.3fms, avgUsage=%.3fms, " +
+                            "stmtCache{hits=%d, misses=%d, evictions=%d, hitRatio=%.1f%%}}",
+                    openConnections, idleConnections, activeConnections, waitingThreads, borrowCount, createdCount,
+                    destroyedCount, timeoutCount, validationFailures, getAverageWaitMillis(),
+                    maxWaitNanos / 1_000_000.0, getAverageUsageMillis(),
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions,
+                    getStatementCacheHitRatio() * 100);
+        }
+    }
+}
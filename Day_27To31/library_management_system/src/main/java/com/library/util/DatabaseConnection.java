@@ -1,26 +1,83 @@
 package Day_27To31.library_management_system.src.main.java.com.library.util;
 
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/library_db";
+    // useCursorFetch lets a statement with a fetch size stream rows in batches instead of buffering the whole result;
+    // rewriteBatchedStatements turns executeBatch() of an INSERT into multi-row INSERTs
+    private static final String URL = "jdbc:mysql://localhost:3306/library_db?useCursorFetch=true&rewriteBatchedStatements=true";
     private static final String USERNAME = "root";
     private static final String PASSWORD = "Mahesh@mySQL";
 
-    static {
-        try {
-            // Load MySQL JDBC driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("MySQL JDBC Driver not found", e);
+    // Shared pool - physical connections are opened once and reused across DAO calls.
+    // Created on first use, so a process that only uses an override never needs the driver
+    private static final class PoolHolder {
+        static {
+            try {
+                // Load MySQL JDBC driver
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException("MySQL JDBC Driver not found", e);
+            }
+        }
+
+        private static final ConnectionPool POOL = new ConnectionPool(URL, USERNAME, PASSWORD,
+                LibraryConfig.getInt("library.pool.minSize", 2),
+                LibraryConfig.getInt("library.pool.maxSize", 10),
+                LibraryConfig.getLong("library.pool.borrowTimeoutMs", 5000),
+                LibraryConfig.getLong("library.pool.idleTimeoutMs", 300_000),
+                LibraryConfig.getLong("library.pool.validationIntervalMs", 1000),
+                LibraryConfig.getInt("library.pool.statementCacheSize", 64));
+
+        static {
+            poolStarted = true;
         }
     }
 
+    private static volatile boolean poolStarted;
+
+    // Replaces the pool when set, e.g. an in-process stand-in database for benchmarks
+    private static volatile DataSource override;
+
+    /**
+     * Borrow a pooled connection. Closing it returns it to the pool.
+     * Inside a UnitOfWork this returns the unit's shared transactional connection instead.
+     * Either way the handle is recorded in QueryMetrics against the calling DAO method.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+        UnitOfWork unit = UnitOfWork.current();
+        if (unit != null) {
+            return QueryMetrics.instrument(unit.getParticipatingConnection());
+        }
+        return QueryMetrics.instrument(getDataSource().getConnection());
+    }
+
+    public static DataSource getDataSource() {
+        DataSource dataSource = override;
+        return dataSource != null ? dataSource : PoolHolder.POOL;
+    }
+
+    /**
+     * Route all connections to another DataSource; null goes back to the pool
+     */
+    public static void setDataSource(DataSource dataSource) {
+        override = dataSource;
+    }
+
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return PoolHolder.POOL.getStats();
+    }
+
+    /**
+     * Close the pool if it was ever started; starting one just to close it would dial the database
+     */
+    public static void shutdown() {
+        if (poolStarted) {
+            PoolHolder.POOL.shutdown();
+        }
     }
 
     public static void closeConnection(Connection connection) {
@@ -38,6 +95,7 @@ public class DatabaseConnection {
             if (conn != null && !conn.isClosed()) {
                 System.out.println("✓ Database connection successful!");
                 System.out.println("Database: " + conn.getMetaData().getDatabaseProductName());
+                System.out.println(getPoolStats());
             }
         } catch (SQLException e) {
             System.err.println("✗ Database connection failed: " + e.getMessage());
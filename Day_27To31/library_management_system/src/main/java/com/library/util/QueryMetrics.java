@@ -0,0 +1,554 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counts, errors, rows and latency histograms per DAO method and per SQL statement.
+ *
+ * DatabaseConnection hands out connections through instrument(). A borrowed connection is
+ * one DAO method call: the method is found once from the stack when the connection is
+ * borrowed, and the call is recorded when it is closed (borrow-to-close time, errors raised
+ * by any statement on it, rows read or changed). Each statement execution is recorded
+ * separately under the name of the DAO constant holding its SQL, e.g. BookDAO.SELECT_ALL_BOOKS.
+ *
+ * Recording only touches LongAdders and a LatencyHistogram. Statements slower than the
+ * SlowQueryLog threshold are also written there with their bound parameters. Turn both off
+ * with -Dlibrary.metrics.enabled=false.
+ */
+public final class QueryMetrics {
+    private static final boolean ENABLED = LibraryConfig.getBoolean("library.metrics.enabled", true);
+    private static final int MAX_STATEMENT_LABELS = 2048;
+    private static final StackWalker STACK = StackWalker.getInstance();
+
+    private static final Map<String, Stats> DAO_METHODS = new ConcurrentHashMap<>();
+    private static final Map<String, Stats> STATEMENTS = new ConcurrentHashMap<>();
+    // SQL text -> statement name; dynamic SQL (IN-lists) is bounded by MAX_STATEMENT_LABELS
+    private static final Map<String, String> STATEMENT_LABELS = new ConcurrentHashMap<>();
+
+    private QueryMetrics() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Wrap a connection so everything done through it is recorded against the calling DAO method
+     */
+    static Connection instrument(Connection connection) {
+        if (!ENABLED) return connection;
+        StackWalker.StackFrame caller = findCaller();
+        String owner = caller != null ? caller.getClassName() : null;
+        String name = caller != null ? simpleName(owner) + "." + caller.getMethodName() : "unknown";
+        ConnectionHandler handler = new ConnectionHandler(connection, stats(DAO_METHODS, name), owner);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    public static Snapshot snapshot() {
+        return new Snapshot(LocalDateTime.now(), snapshotOf(DAO_METHODS), snapshotOf(STATEMENTS));
+    }
+
+    /**
+     * Zero every counter; names seen so far stay listed
+     */
+    public static void reset() {
+        DAO_METHODS.values().forEach(Stats::reset);
+        STATEMENTS.values().forEach(Stats::reset);
+    }
+
+    // ==================== Attribution ====================
+
+    /**
+     * Climb the run of frames in the caller's package, looking through this package's frames
+     * (UnitOfWork callbacks): the outermost one is the DAO method the application called,
+     * not a private helper
+     */
+    private static StackWalker.StackFrame findCaller() {
+        String ownPackage = QueryMetrics.class.getPackageName();
+        return STACK.walk(frames -> {
+            StackWalker.StackFrame outermost = null;
+            String callerPackage = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String pkg = packageOf(frame.getClassName());
+                if (pkg.equals(ownPackage)) continue;
+                if (callerPackage == null) {
+                    callerPackage = pkg;
+                } else if (!pkg.equals(callerPackage)) {
+                    break;
+                }
+                outermost = frame;
+            }
+            return outermost;
+        });
+    }
+
+    private static String statementLabel(String sql, String owner) {
+        String label = STATEMENT_LABELS.get(sql);
+        if (label != null) return label;
+        label = resolveConstant(sql, owner);
+        if (STATEMENT_LABELS.size() < MAX_STATEMENT_LABELS) {
+            STATEMENT_LABELS.put(sql, label);
+        }
+        return label;
+    }
+
+    /**
+     * Name of the owner's (or a superclass's) SQL constant equal to the statement, or the
+     * longest one it starts with for SQL built from a constant prefix; else the SQL itself
+     */
+    private static String resolveConstant(String sql, String owner) {
+        String best = null;
+        int bestLength = 0;
+        if (owner != null) {
+            try {
+                for (Class<?> type = Class.forName(owner); type != null && type != Object.class; type = type.getSuperclass()) {
+                    for (Field field : type.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        String value = (String) field.get(null);
+                        if (value == null || value.isEmpty()) continue;
+                        if (value.equals(sql)) {
+                            return type.getSimpleName() + "." + field.getName();
+                        }
+                        if (sql.startsWith(value) && value.length() > bestLength) {
+                            best = type.getSimpleName() + "." + field.getName();
+                            bestLength = value.length();
+                        }
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Fall back to the SQL text
+            }
+        }
+        if (best != null) return best;
+        String collapsed = sql.replaceAll("\\s+", " ").trim();
+        return collapsed.length() > 80 ? collapsed.substring(0, 77) + "..." : collapsed;
+    }
+
+    private static Stats stats(Map<String, Stats> map, String name) {
+        Stats stats = map.get(name);
+        return stats != null ? stats : map.computeIfAbsent(name, Stats::new);
+    }
+
+    private static String packageOf(String className) {
+        int dot = className.lastIndexOf('.');
+        return dot < 0 ? "" : className.substring(0, dot);
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static List<OperationStats> snapshotOf(Map<String, Stats> map) {
+        List<OperationStats> result = new ArrayList<>();
+        for (Stats stats : map.values()) {
+            if (stats.calls.sum() > 0) result.add(stats.snapshot());
+        }
+        result.sort(Comparator.comparingDouble(OperationStats::getTotalMillis).reversed());
+        return result;
+    }
+
+    // ==================== Recording ====================
+
+    private static final class Stats {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, boolean error) {
+            calls.increment();
+            totalNanos.add(nanos);
+            latency.record(nanos);
+            if (error) errors.increment();
+        }
+
+        void reset() {
+            calls.reset();
+            errors.reset();
+            rows.reset();
+            totalNanos.reset();
+            latency.reset();
+        }
+
+        OperationStats snapshot() {
+            return new OperationStats(name, calls.sum(), errors.sum(), rows.sum(), totalNanos.sum(),
+                    latency.getPercentileNanos(50), latency.getPercentileNanos(95),
+                    latency.getPercentileNanos(99), latency.getMaxNanos());
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final Stats stats;
+        private final String owner;
+        private final long borrowedAt = System.nanoTime();
+        private volatile boolean failed;
+        private boolean closed;
+
+        ConnectionHandler(Connection connection, Stats stats, String owner) {
+            this.connection = connection;
+            this.stats = stats;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        stats.record(System.nanoTime() - borrowedAt, failed);
+                    }
+                    break;
+                case "prepareStatement":
+                    PreparedStatement statement = (PreparedStatement) call(method, args);
+                    Stats statementStats = stats(STATEMENTS, statementLabel((String) args[0], owner));
+                    return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class},
+                            new StatementHandler(statement, (String) args[0], statementStats, this));
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return call(method, args);
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return QueryMetrics.invoke(connection, method, args);
+            } catch (SQLException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final String sql;
+        private final Stats stats;
+        private final ConnectionHandler connection;
+        // Bound values, kept only for the slow query log
+        private Object[] parameters;
+        private int parameterCount;
+        private int batchSize;
+
+        StatementHandler(PreparedStatement statement, String sql, Stats stats, ConnectionHandler connection) {
+            this.statement = statement;
+            this.sql = sql;
+            this.stats = stats;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    parameterCount = 0;
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                            && SlowQueryLog.isEnabled()) {
+                        bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    }
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return QueryMetrics.invoke(statement, method, args);
+            }
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = QueryMetrics.invoke(statement, method, args);
+            } catch (SQLException e) {
+                long nanos = System.nanoTime() - start;
+                stats.record(nanos, true);
+                connection.failed = true;
+                if (SlowQueryLog.isSlow(nanos)) logSlow(nanos, -1);
+                batchSize = 0;
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            stats.record(nanos, false);
+
+            if (result instanceof ResultSet) {
+                // Rows are known once the caller has read them; a slow query is logged then
+                RowCounter counter = new RowCounter((ResultSet) result, stats, connection.stats);
+                if (SlowQueryLog.isSlow(nanos)) counter.logWhenDone(this, nanos, parameters, parameterCount);
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, counter);
+            }
+            long rows = addRows(result);
+            if (SlowQueryLog.isSlow(nanos)) logSlow(nanos, rows);
+            batchSize = 0;
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (parameters == null) {
+                parameters = new Object[Math.max(8, index)];
+            } else if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private long addRows(Object result) {
+            long rows = 0;
+            if (result instanceof Integer || result instanceof Long) {
+                rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    if (count > 0) rows += count;
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    if (count > 0) rows += count;
+                }
+            }
+            if (rows > 0) {
+                stats.rows.add(rows);
+                connection.stats.rows.add(rows);
+            }
+            return rows;
+        }
+
+        private void logSlow(long nanos, long rows) {
+            SlowQueryLog.log(stats.name, connection.stats.name, sql, parameters, parameterCount, batchSize, nanos, rows);
+        }
+    }
+
+    /**
+     * Counts rows locally and publishes them once, when the result set is exhausted or closed
+     */
+    private static final class RowCounter implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final Stats statementStats;
+        private final Stats methodStats;
+        private long rows;
+        private boolean published;
+        // Set when the query was slow: logged with its row count on publish
+        private StatementHandler slowStatement;
+        private long slowNanos;
+        private Object[] slowParameters;
+        private int slowParameterCount;
+
+        RowCounter(ResultSet resultSet, Stats statementStats, Stats methodStats) {
+            this.resultSet = resultSet;
+            this.statementStats = statementStats;
+            this.methodStats = methodStats;
+        }
+
+        void logWhenDone(StatementHandler statement, long nanos, Object[] parameters, int parameterCount) {
+            slowStatement = statement;
+            slowNanos = nanos;
+            slowParameters = parameters != null ? parameters.clone() : null;
+            slowParameterCount = parameterCount;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    Object hasRow = QueryMetrics.invoke(resultSet, method, args);
+                    if ((Boolean) hasRow) {
+                        rows++;
+                    } else {
+                        publish();
+                    }
+                    return hasRow;
+                case "close":
+                    publish();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return QueryMetrics.invoke(resultSet, method, args);
+        }
+
+        private void publish() {
+            if (published) return;
+            published = true;
+            statementStats.rows.add(rows);
+            methodStats.rows.add(rows);
+            if (slowStatement != null) {
+                SlowQueryLog.log(statementStats.name, methodStats.name, slowStatement.sql,
+                        slowParameters, slowParameterCount, 0, slowNanos, rows);
+            }
+        }
+    }
+
+    // ==================== Snapshot ====================
+
+    public static class OperationStats {
+        private final String name;
+        private final long calls;
+        private final long errors;
+        private final long rows;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        public OperationStats(String name, long calls, long errors, long rows, long totalNanos,
+                              long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+            this.name = name;
+            this.calls = calls;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public long getCalls() { return calls; }
+        public long getErrors() { return errors; }
+        public long getRows() { return rows; }
+        public double getTotalMillis() { return LatencyHistogram.toMillis(totalNanos); }
+        public double getMeanMillis() { return calls == 0 ? 0 : LatencyHistogram.toMillis((double) totalNanos / calls); }
+        public double getP50Millis() { return LatencyHistogram.toMillis(p50Nanos); }
+        public double getP95Millis() { return LatencyHistogram.toMillis(p95Nanos); }
+        public double getP99Millis() { return LatencyHistogram.toMillis(p99Nanos); }
+        public double getMaxMillis() { return LatencyHistogram.toMillis(maxNanos); }
+
+        @Override
+        public String toString() {
+            return String.format("%-45s %8d %6d %9d %10.1f %8.2f %8.2f %8.2f %8.2f",
+                    truncate(name, 45), calls, errors, rows, getTotalMillis(),
+                    getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis());
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"name\":\"%s\",\"calls\":%d,\"errors\":%d,\"rows\":%d,\"totalMs\":%.3f,\"meanMs\":%.3f," +
+                            "\"p50Ms\":%.3f,\"p95Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f}",
+                    escape(name), calls, errors, rows, getTotalMillis(), getMeanMillis(),
+                    getP50Millis(), getP95Millis(), getP99Millis(), getMaxMillis());
+        }
+
+        private static String truncate(String str, int maxLength) {
+            return str.length() <= maxLength ? str : str.substring(0, maxLength - 3) + "...";
+        }
+
+        private static String escape(String str) {
+            StringBuilder sb = new StringBuilder(str.length());
+            for (char c : str.toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Point-in-time copy of all counters, busiest (by total time) first
+     */
+    public static class Snapshot {
+        private final LocalDateTime capturedAt;
+        private final List<OperationStats> daoMethods;
+        private final List<OperationStats> statements;
+
+        public Snapshot(LocalDateTime capturedAt, List<OperationStats> daoMethods, List<OperationStats> statements) {
+            this.capturedAt = capturedAt;
+            this.daoMethods = daoMethods;
+            this.statements = statements;
+        }
+
+        // Getters
+        public LocalDateTime getCapturedAt() { return capturedAt; }
+        public List<OperationStats> getDaoMethods() { return daoMethods; }
+        public List<OperationStats> getStatements() { return statements; }
+
+        public String toJson() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"capturedAt\":\"").append(capturedAt).append("\",\n\"daoMethods\":[");
+            appendJson(sb, daoMethods);
+            sb.append("],\n\"statements\":[");
+            appendJson(sb, statements);
+            sb.append("]}\n");
+            return sb.toString();
+        }
+
+        private static void appendJson(StringBuilder sb, List<OperationStats> list) {
+            for (int i = 0; i < list.size(); i++) {
+                sb.append(i == 0 ? "\n  " : ",\n  ").append(list.get(i).toJson());
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            String header = String.format("%-45s %8s %6s %9s %10s %8s %8s %8s %8s%n",
+                    "", "Calls", "Errors", "Rows", "Total ms", "Mean ms", "p50 ms", "p99 ms", "Max ms");
+            sb.append("Query metrics at ").append(capturedAt).append('\n');
+            sb.append("\nDAO methods (borrow to close):\n").append(header);
+            daoMethods.forEach(stats -> sb.append(stats).append('\n'));
+            sb.append("\nSQL statements (execution only):\n").append(header);
+            statements.forEach(stats -> sb.append(stats).append('\n'));
+            return sb.toString();
+        }
+    }
+}
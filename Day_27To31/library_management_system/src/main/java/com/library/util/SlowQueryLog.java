@@ -0,0 +1,138 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends statements slower than a threshold to a size-rotated log file.
+ *
+ * One line per statement: time, duration, rows, statement name, calling DAO method, thread,
+ * the SQL and its bound parameters (for a batch, the last row's). Fed by the JDBC wrappers
+ * in QueryMetrics, so it is active only while query metrics are enabled.
+ *
+ * Settings: library.slowQuery.thresholdMs (default 500, negative disables),
+ * library.slowQuery.file (slow-query.log), library.slowQuery.maxBytes (10 MB) and
+ * library.slowQuery.files (5 rotated files kept: slow-query.log.1 is the newest).
+ */
+public final class SlowQueryLog {
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            LibraryConfig.getLong("library.slowQuery.thresholdMs", 500));
+    private static final Path FILE = Paths.get(LibraryConfig.getString("library.slowQuery.file", "slow-query.log"));
+    private static final long MAX_BYTES = LibraryConfig.getLong("library.slowQuery.maxBytes", 10L * 1024 * 1024);
+    private static final int MAX_FILES = Math.max(1, LibraryConfig.getInt("library.slowQuery.files", 5));
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private static BufferedWriter writer;
+    private static long size;
+    private static boolean failed;
+
+    private SlowQueryLog() {}
+
+    public static boolean isEnabled() {
+        return THRESHOLD_NANOS >= 0;
+    }
+
+    public static boolean isSlow(long nanos) {
+        return THRESHOLD_NANOS >= 0 && nanos >= THRESHOLD_NANOS;
+    }
+
+    public static Path getFile() {
+        return FILE;
+    }
+
+    /**
+     * @param rows rows returned or changed, -1 when unknown
+     * @param batchSize rows in the batch, 0 for a single execution
+     */
+    static void log(String statement, String caller, String sql, Object[] parameters, int parameterCount,
+                    int batchSize, long nanos, long rows) {
+        StringBuilder line = new StringBuilder(256);
+        line.append(LocalDateTime.now())
+                .append(String.format(" %.1fms", LatencyHistogram.toMillis(nanos)))
+                .append(" rows=").append(rows < 0 ? "?" : String.valueOf(rows));
+        if (batchSize > 0) line.append(" batch=").append(batchSize);
+        line.append(' ').append(statement)
+                .append(" caller=").append(caller)
+                .append(" thread=").append(Thread.currentThread().getName())
+                .append(" | ").append(sql.replaceAll("\\s+", " ").trim())
+                .append(" | params=");
+        appendParameters(line, parameters, parameterCount);
+        line.append(System.lineSeparator());
+        write(line.toString());
+    }
+
+    private static void appendParameters(StringBuilder sb, Object[] parameters, int count) {
+        sb.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(", ");
+            Object value = parameters[i];
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof CharSequence) {
+                String str = value.toString();
+                if (str.length() > MAX_PARAMETER_LENGTH) str = str.substring(0, MAX_PARAMETER_LENGTH - 3) + "...";
+                sb.append('\'').append(str.replace("'", "''").replace('\n', ' ')).append('\'');
+            } else {
+                sb.append(value);
+            }
+        }
+        sb.append(']');
+    }
+
+    private static synchronized void write(String line) {
+        if (failed) return;
+        try {
+            if (writer == null) {
+                open();
+            }
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if (size > 0 && size + bytes.length > MAX_BYTES) {
+                rotate();
+            }
+            writer.write(line);
+            writer.flush();
+            size += bytes.length;
+        } catch (IOException e) {
+            // One message, then stop trying; the application must not fail over its log
+            failed = true;
+            System.err.println("Error writing slow query log " + FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static void open() throws IOException {
+        Path parent = FILE.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        writer = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(FILE);
+    }
+
+    /**
+     * slow-query.log -> .1 -> .2 ..., dropping the oldest
+     */
+    private static void rotate() throws IOException {
+        writer.close();
+        writer = null;
+        Files.deleteIfExists(rotated(MAX_FILES));
+        for (int i = MAX_FILES - 1; i >= 1; i--) {
+            Path from = rotated(i);
+            if (Files.exists(from)) {
+                Files.move(from, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(FILE, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private static Path rotated(int index) {
+        return FILE.resolveSibling(FILE.getFileName() + "." + index);
+    }
+}
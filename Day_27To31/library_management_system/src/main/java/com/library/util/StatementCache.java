@@ -0,0 +1,243 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of PreparedStatements for one physical connection, keyed by SQL text.
+ *
+ * DAOs keep calling prepareStatement/close as before; a cached statement's close()
+ * only clears its parameters and makes it available for the next call with the same SQL.
+ */
+class StatementCache {
+    private final Connection connection;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    // Access-ordered, so iteration starts at the least recently used statement
+    private final LinkedHashMap<StatementKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection connection, int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.inUse) {
+                entry.inUse = true;
+                hits.increment();
+                return entry.newHandle();
+            }
+        }
+
+        misses.increment();
+        PreparedStatement statement = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql);
+
+        if (maxSize <= 0) {
+            return statement;
+        }
+
+        List<Entry> evicted = new ArrayList<>();
+        Entry entry;
+        synchronized (this) {
+            // Same SQL already checked out on this connection (e.g. a nested call) - hand out an uncached one
+            if (entries.containsKey(key)) {
+                return statement;
+            }
+            entry = new Entry(key, statement);
+            entry.inUse = true;
+            entries.put(key, entry);
+
+            Iterator<Map.Entry<StatementKey, Entry>> it = entries.entrySet().iterator();
+            while (entries.size() > maxSize && it.hasNext()) {
+                Entry eldest = it.next().getValue();
+                if (eldest == entry) continue;
+                it.remove();
+                evictions.increment();
+                if (eldest.inUse) {
+                    eldest.evicted = true; // closed when its current user is done with it
+                } else {
+                    evicted.add(eldest);
+                }
+            }
+        }
+
+        for (Entry e : evicted) {
+            closeQuietly(e.statement);
+        }
+        return entry.newHandle();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Close every cached statement, used when the physical connection is destroyed
+     */
+    void closeAll() {
+        List<Entry> all;
+        synchronized (this) {
+            all = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        for (Entry e : all) {
+            closeQuietly(e.statement);
+        }
+    }
+
+    private void release(Entry entry) {
+        boolean close;
+        synchronized (this) {
+            entry.inUse = false;
+            close = entry.evicted;
+        }
+
+        if (close) {
+            closeQuietly(entry.statement);
+            return;
+        }
+
+        try {
+            entry.statement.clearParameters();
+            if (entry.configChanged) {
+                entry.statement.setFetchSize(0);
+                entry.statement.setMaxRows(0);
+                entry.statement.setQueryTimeout(0);
+                entry.configChanged = false;
+            }
+        } catch (SQLException e) {
+            // Statement is unusable - drop it so the next call prepares a fresh one
+            synchronized (this) {
+                entries.remove(entry.key, entry);
+            }
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    private static final class StatementKey {
+        private final String sql;
+        private final int autoGeneratedKeys;
+        private final int hash;
+
+        StatementKey(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.hash = 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey other = (StatementKey) o;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final class Entry {
+        private final StatementKey key;
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+        private volatile boolean configChanged;
+
+        Entry(StatementKey key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        PreparedStatement newHandle() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new HandleInvocation(this));
+        }
+    }
+
+    private final class HandleInvocation implements InvocationHandler {
+        private final Entry entry;
+        private boolean closed;
+
+        HandleInvocation(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.key.sql + "]";
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setQueryTimeout":
+                    entry.configChanged = true;
+                    break;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
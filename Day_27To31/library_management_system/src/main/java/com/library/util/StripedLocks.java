@@ -0,0 +1,144 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed table of locks that keys hash onto, for serializing work on the same key inside the
+ * JVM without keeping a lock object per key. Unrelated keys can share a stripe, which only
+ * costs some needless waiting, so the table should be well larger than the number of threads.
+ *
+ * Several keys are locked in stripe order, so two callers locking the same keys in a
+ * different order cannot deadlock.
+ *
+ * <pre>
+ * try (StripedLocks.Held held = locks.lock(key1, key2)) {
+ *     if (held == null) ... timed out ...
+ * }
+ * </pre>
+ */
+public final class StripedLocks {
+    private final String name;
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final boolean fair;
+    private final long timeoutMillis;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * @param stripes number of locks, rounded up to a power of two
+     * @param fair grant contended stripes in arrival order instead of letting new callers barge in
+     * @param timeoutMillis how long to wait for a stripe before giving up; 0 or less waits indefinitely
+     */
+    public StripedLocks(String name, int stripes, boolean fair, long timeoutMillis) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripes);
+        }
+        int size = Integer.highestOneBit(Math.min(stripes, 1 << 30));
+        if (size < stripes) size <<= 1;
+        this.name = name;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock(fair);
+        }
+        this.mask = size - 1;
+        this.fair = fair;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Lock the stripes of all keys
+     * @return the held stripes (close to release), or null if one could not be had within the timeout
+     */
+    public Held lock(long... keys) {
+        int[] indexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            indexes[i] = stripeOf(keys[i]);
+        }
+        Arrays.sort(indexes);
+
+        int count = 0;
+        ReentrantLock[] held = new ReentrantLock[indexes.length];
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                if (i > 0 && indexes[i] == indexes[i - 1]) continue;
+                ReentrantLock lock = stripes[indexes[i]];
+                if (!acquire(lock)) {
+                    timedOut.increment();
+                    unlock(held, count);
+                    return null;
+                }
+                held[count++] = lock;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlock(held, count);
+            return null;
+        }
+        acquired.increment();
+        return new Held(held, count);
+    }
+
+    // tryLock(0, ...) rather than tryLock() so a fair lock is not barged
+    private boolean acquire(ReentrantLock lock) throws InterruptedException {
+        if (lock.tryLock(0, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        waited.increment();
+        if (timeoutMillis <= 0) {
+            lock.lockInterruptibly();
+            return true;
+        }
+        return lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private int stripeOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static void unlock(ReentrantLock[] held, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s locks: %d acquired, %d waited, %d timed out (%d stripes, %s, timeout %s)",
+                name, acquired.sum(), waited.sum(), timedOut.sum(), stripes.length,
+                fair ? "fair" : "non-fair", timeoutMillis > 0 ? timeoutMillis + " ms" : "none");
+    }
+
+    /**
+     * Stripes held by one caller; close releases them
+     */
+    public static final class Held implements AutoCloseable {
+        /**
+         * Holds nothing, for callers that skip locking
+         */
+        public static final Held NONE = new Held(new ReentrantLock[0], 0);
+
+        private final ReentrantLock[] locks;
+        private final int count;
+        private boolean released;
+
+        private Held(ReentrantLock[] locks, int count) {
+            this.locks = locks;
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            if (count > 0 && !released) {
+                released = true;
+                unlock(locks, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs a transactional unit in its own UnitOfWork and reruns it when it fails on a transient
+ * lock conflict: a deadlock (MySQL 1213, SQLState 40001) or a lock wait timeout (MySQL 1205).
+ * Any other failure, or a unit that returns false, ends the call as before.
+ *
+ * The unit must be safe to run again from the start: everything it changes is either in the
+ * transaction or undone by an afterRollback action. DAO methods that swallow their
+ * SQLException report it with UnitOfWork.recordFailure so it can be classified here.
+ *
+ * Attempts back off exponentially with full jitter, so clients that collided do not collide
+ * again in step. Retries also draw on a shared budget that each call tops up by a fraction of a
+ * retry; when the database is failing everything, the budget runs dry and calls fail fast
+ * instead of multiplying the load.
+ *
+ * <pre>
+ * boolean issued = TransactionExecutor.execute("issueBook", () -> ... DAO calls ...);
+ * </pre>
+ */
+public final class TransactionExecutor {
+    private static final int MAX_ATTEMPTS = Math.max(1, LibraryConfig.getInt("library.tx.maxAttempts", 4));
+    private static final long BASE_BACKOFF_MS = LibraryConfig.getLong("library.tx.baseBackoffMs", 5);
+    private static final long MAX_BACKOFF_MS = LibraryConfig.getLong("library.tx.maxBackoffMs", 200);
+    // Budget in thousandths of a retry: each call deposits budgetRatio, each retry costs one
+    private static final long BUDGET_DEPOSIT =
+            Math.round(Math.max(0, LibraryConfig.getDouble("library.tx.retryBudgetRatio", 0.2)) * 1000);
+    private static final long BUDGET_CAPACITY = LibraryConfig.getLong("library.tx.retryBudgetMax", 100) * 1000;
+
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private static final AtomicLong BUDGET = new AtomicLong(BUDGET_CAPACITY);
+    private static final Map<String, Stats> STATS = new ConcurrentSkipListMap<>();
+
+    private TransactionExecutor() {}
+
+    /**
+     * Run the unit in a transaction, committing when it returns true.
+     * Inside an open transaction the unit just joins it: the outer transaction decides, and retries.
+     * @return true if the unit succeeded and its transaction committed
+     */
+    public static boolean execute(String name, BooleanSupplier unit) {
+        if (UnitOfWork.isActive()) {
+            try (UnitOfWork uow = UnitOfWork.begin()) {
+                if (!unit.getAsBoolean()) {
+                    return false;
+                }
+                uow.commit();
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Error in " + name + ": " + e.getMessage());
+                return false;
+            }
+        }
+
+        Stats stats = STATS.computeIfAbsent(name, Stats::new);
+        stats.calls.increment();
+        deposit();
+
+        for (int attempt = 1; ; attempt++) {
+            SQLException failure;
+            try (UnitOfWork uow = UnitOfWork.begin()) {
+                try {
+                    if (unit.getAsBoolean()) {
+                        uow.commit();
+                        if (attempt > 1) stats.recovered.increment();
+                        return true;
+                    }
+                    failure = uow.getFailure();
+                } catch (SQLException e) {
+                    failure = uow.getFailure();
+                    if (failure == null) {
+                        System.err.println("Error committing " + name + ": " + e.getMessage());
+                        failure = e;
+                    }
+                }
+            }
+
+            if (failure == null || !isRetryable(failure)) {
+                return false;
+            }
+            stats.conflicts.increment();
+            if (attempt >= MAX_ATTEMPTS) {
+                stats.exhausted.increment();
+                System.err.println(name + " gave up after " + attempt + " attempts: " + failure.getMessage());
+                return false;
+            }
+            if (!withdraw()) {
+                stats.budgetDenied.increment();
+                System.err.println(name + " not retried (retry budget exhausted): " + failure.getMessage());
+                return false;
+            }
+            if (!backOff(attempt)) {
+                return false;
+            }
+            stats.retries.increment();
+        }
+    }
+
+    /**
+     * True for failures that a fresh attempt of the whole transaction can succeed past:
+     * serialization failures and deadlocks (SQLState class 40) and MySQL lock wait timeouts
+     */
+    public static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException && isTransient((SQLException) t)) {
+                return true;
+            }
+        }
+        for (SQLException next = e.getNextException(); next != null; next = next.getNextException()) {
+            if (isTransient(next)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransactionRollbackException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        if (state != null && state.startsWith("40")) {
+            return true;
+        }
+        return e.getErrorCode() == ER_LOCK_DEADLOCK || e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT;
+    }
+
+    // ==================== Backoff and budget ====================
+
+    /**
+     * Sleep a random time up to base * 2^(attempt-1), capped at library.tx.maxBackoffMs
+     * @return false if interrupted, in which case no further attempt is made
+     */
+    private static boolean backOff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) return true;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void deposit() {
+        long current;
+        do {
+            current = BUDGET.get();
+            if (current >= BUDGET_CAPACITY) return;
+        } while (!BUDGET.compareAndSet(current, Math.min(BUDGET_CAPACITY, current + BUDGET_DEPOSIT)));
+    }
+
+    private static boolean withdraw() {
+        long current;
+        do {
+            current = BUDGET.get();
+            if (current < 1000) return false;
+        } while (!BUDGET.compareAndSet(current, current - 1000));
+        return true;
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * One line per transaction name that has run, or an empty list
+     */
+    public static List<String> getRetryStats() {
+        List<String> lines = new ArrayList<>();
+        for (Stats stats : STATS.values()) {
+            lines.add(stats.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Retries left in the shared budget
+     */
+    public static double getRetryBudget() {
+        return BUDGET.get() / 1000.0;
+    }
+
+    private static final class Stats {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder recovered = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private final LongAdder budgetDenied = new LongAdder();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Transaction %s: %d calls, %d lock conflicts, %d retries, %d recovered, " +
+                            "%d gave up (max %d attempts), %d refused by retry budget",
+                    name, calls.sum(), conflicts.sum(), retries.sum(), recovered.sum(),
+                    exhausted.sum(), MAX_ATTEMPTS, budgetDenied.sum());
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package Day_27To31.library_management_system.src.main.java.com.library.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Thread-bound transaction scope.
+ *
+ * While a unit of work is open, every DatabaseConnection.getConnection() call on the
+ * same thread shares its single connection and transaction, so a service operation
+ * spanning several DAO calls borrows one connection and commits (or rolls back) once.
+ *
+ * <pre>
+ * try (UnitOfWork uow = UnitOfWork.begin()) {
+ *     ... DAO calls ...
+ *     uow.commit();
+ * }   // rolled back here if commit() was not reached
+ * </pre>
+ *
+ * Opening a unit of work inside another one joins the outer transaction: commit() on
+ * the inner unit is a no-op, and closing it without committing marks the whole
+ * transaction rollback-only.
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+    private static final LongAdder ROLLBACKS = new LongAdder();
+
+    private final UnitOfWork root;
+    private boolean committed;
+    private boolean closed;
+    // Instrumented handles given out by getConnection(), closed (and so recorded) with this unit
+    private List<Connection> handles;
+
+    // Root-only state
+    private Connection connection;
+    private Connection participatingHandle;
+    private boolean rollbackOnly;
+    private SQLException failure;
+    private List<Runnable> afterCommitActions;
+    private List<Runnable> afterRollbackActions;
+    private List<Lock> commitLocks;
+
+    private UnitOfWork(UnitOfWork root) {
+        this.root = root != null ? root : this;
+    }
+
+    /**
+     * Start a new transaction, or join the one already open on this thread
+     */
+    public static UnitOfWork begin() {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            return new UnitOfWork(current);
+        }
+        UnitOfWork unit = new UnitOfWork(null);
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    /**
+     * The outermost unit of work open on this thread, or null
+     */
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Run an action once the current transaction commits (immediately if there is none).
+     * Use it for in-memory side effects that must not be visible if the transaction rolls back.
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork current = CURRENT.get();
+        if (current == null) {
+            action.run();
+            return;
+        }
+        if (current.afterCommitActions == null) {
+            current.afterCommitActions = new ArrayList<>();
+        }
+        current.afterCommitActions.add(action);
+    }
+
+    /**
+     * Run an action if the current transaction ends without committing (never if there is none).
+     * Use it to undo in-memory side effects taken ahead of the commit.
+     */
+    public static void afterRollback(Runnable action) {
+        UnitOfWork current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        if (current.afterRollbackActions == null) {
+            current.afterRollbackActions = new ArrayList<>();
+        }
+        current.afterRollbackActions.add(action);
+    }
+
+    /**
+     * Hold a lock from just before the current transaction commits until its after-commit actions
+     * have run (a no-op if there is none), so whoever takes the lock's other side sees either
+     * both the commit and its in-memory effects or neither
+     */
+    public static void holdDuringCommit(Lock lock) {
+        UnitOfWork current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        if (current.commitLocks == null) {
+            current.commitLocks = new ArrayList<>();
+        }
+        if (!current.commitLocks.contains(lock)) {
+            current.commitLocks.add(lock);
+        }
+    }
+
+    /**
+     * The transactional connection, borrowed lazily. Work done through it is recorded by
+     * QueryMetrics against the calling DAO method until this unit closes. The caller need not
+     * close it; close/commit/setAutoCommit on it are ignored, as for a participating connection.
+     */
+    public Connection getConnection() throws SQLException {
+        Connection handle = QueryMetrics.instrument(getParticipatingConnection());
+        if (handles == null) {
+            handles = new ArrayList<>();
+        }
+        handles.add(handle);
+        return handle;
+    }
+
+    private Connection rawConnection() throws SQLException {
+        checkOpen();
+        UnitOfWork r = root;
+        if (r.connection == null) {
+            Connection conn = DatabaseConnection.getDataSource().getConnection();
+            try {
+                conn.setAutoCommit(false);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+            r.connection = conn;
+        }
+        return r.connection;
+    }
+
+    /**
+     * A handle for code that manages its own connection (open, setAutoCommit, commit, close).
+     * close/commit/setAutoCommit are ignored and rollback marks the transaction rollback-only.
+     */
+    Connection getParticipatingConnection() throws SQLException {
+        Connection conn = rawConnection();
+        UnitOfWork r = root;
+        if (r.participatingHandle == null) {
+            r.participatingHandle = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                            case "commit":
+                            case "setAutoCommit":
+                                return null;
+                            case "rollback":
+                                if (args == null) {
+                                    r.rollbackOnly = true;
+                                    return null;
+                                }
+                                break;
+                            case "isClosed":
+                                return r.closed;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+        return r.participatingHandle;
+    }
+
+    /**
+     * Transactions rolled back since startup (ones that had touched the database)
+     */
+    public static long getRollbackCount() {
+        return ROLLBACKS.sum();
+    }
+
+    /**
+     * Note a SQL error that a DAO method caught and turned into a false/null result, and mark
+     * the current transaction rollback-only (a no-op without one). The first error is kept so
+     * TransactionExecutor can tell a deadlock worth retrying from a real failure.
+     */
+    public static void recordFailure(SQLException e) {
+        UnitOfWork current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        current.rollbackOnly = true;
+        if (current.failure == null) {
+            current.failure = e;
+        }
+    }
+
+    /**
+     * The first error recorded against this transaction, or null
+     */
+    public SQLException getFailure() {
+        return root.failure;
+    }
+
+    public void setRollbackOnly() {
+        root.rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return root.rollbackOnly;
+    }
+
+    /**
+     * Commit the transaction. Nested units only record that they finished successfully.
+     */
+    public void commit() throws SQLException {
+        checkOpen();
+        if (root != this) {
+            committed = true;
+            return;
+        }
+
+        if (rollbackOnly) {
+            throw new SQLException("Transaction was marked rollback-only and has been rolled back");
+        }
+
+        List<Lock> locks = commitLocks;
+        if (locks != null) {
+            locks.forEach(Lock::lock);
+        }
+        try {
+            if (connection != null) {
+                connection.commit();
+            }
+            committed = true;
+            afterRollbackActions = null;
+
+            if (afterCommitActions != null) {
+                runAll(afterCommitActions, "after-commit");
+                afterCommitActions = null;
+            }
+        } finally {
+            if (locks != null) {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+                commitLocks = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        if (handles != null) {
+            handles.forEach(DatabaseConnection::closeConnection);
+            handles = null;
+        }
+
+        if (root != this) {
+            if (!committed) {
+                root.rollbackOnly = true;
+            }
+            return;
+        }
+
+        CURRENT.remove();
+        if (connection != null) {
+            try {
+                if (!committed) {
+                    ROLLBACKS.increment();
+                    connection.rollback();
+                }
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println("Error ending transaction: " + e.getMessage());
+            } finally {
+                DatabaseConnection.closeConnection(connection);
+                connection = null;
+            }
+        }
+
+        if (!committed && afterRollbackActions != null) {
+            runAll(afterRollbackActions, "after-rollback");
+            afterRollbackActions = null;
+        }
+    }
+
+    private static void runAll(List<Runnable> actions, String phase) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error in " + phase + " action: " + e.getMessage());
+            }
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed || root.closed) {
+            throw new SQLException("Unit of work is already closed");
+        }
+    }
+}
@@ -84,30 +84,34 @@ CREATE TABLE IF NOT EXISTS book_loans (
     CONSTRAINT chk_return_date CHECK (return_date IS NULL OR return_date >= loan_date)
 );
 
--- Create triggers for automatic updates
-DELIMITER //
+-- Progress of incremental maintenance jobs. For the overdue job everything due before
+-- processed_through has been handled; the cursor is where an interrupted pass resumes.
+CREATE TABLE IF NOT EXISTS maintenance_watermarks (
+    job_name VARCHAR(50) PRIMARY KEY,
+    processed_through DATE NOT NULL,
+    cursor_due_date DATE,
+    cursor_loan_id INT,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
 
-CREATE TRIGGER IF NOT EXISTS update_book_copies_after_loan
-    AFTER INSERT ON book_loans
-    FOR EACH ROW
-BEGIN
-    IF NEW.status = 'ACTIVE' THEN
-        UPDATE books
-        SET copies_available = copies_available - 1
-        WHERE book_id = NEW.book_id;
-    END IF;
-END//
+-- Settings shared by the application and the views. daily_fine_rate is read by
+-- BookLoanDAO.getDailyFineRate() and by the library_statistics view, so it lives only here.
+CREATE TABLE IF NOT EXISTS library_settings (
+    setting_key VARCHAR(50) PRIMARY KEY,
+    numeric_value DECIMAL(10,2) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
 
-CREATE TRIGGER IF NOT EXISTS update_book_copies_after_return
-    AFTER UPDATE ON book_loans
-    FOR EACH ROW
-BEGIN
-    IF OLD.status = 'ACTIVE' AND NEW.status = 'RETURNED' THEN
-        UPDATE books
-        SET copies_available = copies_available + 1
-        WHERE book_id = NEW.book_id;
-    END IF;
-END//
+INSERT IGNORE INTO library_settings (setting_key, numeric_value) VALUES ('daily_fine_rate', 1.00);
+
+-- Inventory (books.copies_available) is maintained by the application inside the
+-- issue/return transaction with a conditional UPDATE. The old AFTER INSERT/UPDATE
+-- triggers decremented/incremented it a second time, so drop them on existing databases.
+DROP TRIGGER IF EXISTS update_book_copies_after_loan;
+DROP TRIGGER IF EXISTS update_book_copies_after_return;
+
+-- Create triggers for automatic updates
+DELIMITER //
 
 CREATE TRIGGER IF NOT EXISTS update_overdue_status
     BEFORE UPDATE ON book_loans
@@ -140,13 +144,20 @@ JOIN authors a ON b.author_id = a.author_id
 JOIN members m ON bl.member_id = m.member_id
 WHERE bl.status IN ('ACTIVE', 'OVERDUE');
 
-CREATE VIEW IF NOT EXISTS library_statistics AS
+-- Open loans keep no fine or OVERDUE status in derived-fine mode (the default), so both are
+-- worked out from due_date here at the library_settings daily_fine_rate; returned loans carry
+-- the fine persisted at return
+CREATE OR REPLACE VIEW library_statistics AS
 SELECT
     (SELECT COUNT(*) FROM authors) as total_authors,
     (SELECT COUNT(*) FROM books) as total_books,
     (SELECT SUM(total_copies) FROM books) as total_copies,
     (SELECT SUM(copies_available) FROM books) as available_copies,
     (SELECT COUNT(*) FROM members WHERE status = 'ACTIVE') as active_members,
-    (SELECT COUNT(*) FROM book_loans WHERE status = 'ACTIVE') as active_loans,
-    (SELECT COUNT(*) FROM book_loans WHERE status = 'OVERDUE') as overdue_loans,
-    (SELECT SUM(fine_amount) FROM book_loans WHERE status IN ('OVERDUE', 'RETURNED')) as total_fines;
\ No newline at end of file
+    (SELECT COUNT(*) FROM book_loans WHERE return_date IS NULL AND due_date >= CURDATE()) as active_loans,
+    (SELECT COUNT(*) FROM book_loans WHERE return_date IS NULL AND due_date < CURDATE()) as overdue_loans,
+    (SELECT SUM(CASE WHEN return_date IS NULL AND due_date < CURDATE()
+                     THEN DATEDIFF(CURDATE(), due_date)
+                          * (SELECT numeric_value FROM library_settings WHERE setting_key = 'daily_fine_rate')
+                     ELSE fine_amount END)
+     FROM book_loans WHERE return_date IS NOT NULL OR due_date < CURDATE()) as total_fines;
\ No newline at end of file
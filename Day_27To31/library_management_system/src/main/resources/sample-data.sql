@@ -39,4 +39,11 @@ INSERT IGNORE INTO book_loans (book_id, member_id, loan_date, due_date, return_d
 (6, 5, '2024-02-08', '2024-02-22', NULL, 0.00, 'ACTIVE');
 
 -- Update some loan statuses and book availability (simulating real usage)
-UPDATE book_loans SET status = 'OVERDUE' WHERE due_date < CURDATE() AND status = 'ACTIVE';
\ No newline at end of file
+UPDATE book_loans SET status = 'OVERDUE' WHERE due_date < CURDATE() AND status = 'ACTIVE';
+
+-- Inventory is owned by the application (no triggers), so account for the open sample loans here
+UPDATE books b
+SET b.copies_available = b.total_copies - (
+    SELECT COUNT(*) FROM book_loans bl
+    WHERE bl.book_id = b.book_id AND bl.status IN ('ACTIVE', 'OVERDUE') AND bl.return_date IS NULL
+);